@@ -0,0 +1,63 @@
+package zoo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zoo.Animal;
+import zoo.AnimalTable;
+import zoo.Zoo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// The same aggregations run over the Animal objects and over the columnar table
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnimalTableBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private Zoo zoo;
+    private AnimalTable table;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        zoo = ZooFixtures.generate(size, 42);
+        table = zoo.enableAnimalTable();
+    }
+
+    @Benchmark
+    public Map<String, Map<Integer, Long>> ageHistogramObjects() {
+        return zoo.listSortedByType().stream().collect(Collectors.groupingBy(Animal::getSpecies,
+                Collectors.groupingBy(animal -> animal.getAge() / 5, Collectors.counting())));
+    }
+
+    @Benchmark
+    public Map<String, long[]> ageHistogramTable() {
+        return table.ageHistogramBySpecies(5);
+    }
+
+    @Benchmark
+    public List<Animal> needingAttentionObjects() {
+        return zoo.listSortedByType().stream().filter(Animal::needsMedicalAttention).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Animal> needingAttentionTable() {
+        return table.needingMedicalAttention();
+    }
+
+    @Benchmark
+    public double averageAgeObjects() {
+        return zoo.listSortedByType().stream().mapToInt(Animal::getAge).average().orElse(0);
+    }
+
+    @Benchmark
+    public double averageAgeTable() {
+        return table.averageAge();
+    }
+}
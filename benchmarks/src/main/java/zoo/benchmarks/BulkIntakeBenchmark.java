@@ -0,0 +1,61 @@
+package zoo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zoo.Animal;
+import zoo.BulkResult;
+import zoo.Enclosure;
+import zoo.Zoo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Intake of a whole batch into an empty zoo that has room for all of it: one
+// addAnimal call per animal against a single Zoo.addAll
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkIntakeBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private List<Animal> animals;
+    private Zoo zoo;
+
+    @Setup(Level.Trial)
+    public void createAnimals() {
+        Random random = new Random(42);
+        animals = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) animals.add(ZooFixtures.animal(random, i, size));
+    }
+
+    // Animals can only be in one zoo's enclosures, so every intake gets a fresh zoo
+    @Setup(Level.Invocation)
+    public void createZoo() {
+        zoo = new Zoo();
+        for (String habitat : new String[]{"Savanna", "Aquatic", "Tropical Forest"}) {
+            String prefix = habitat.toUpperCase().replace(' ', '_') + "_B";
+            for (int i = 0; i <= size / ZooFixtures.ENCLOSURE_CAPACITY; i++) {
+                zoo.addEnclosure(new Enclosure(prefix + i, habitat, ZooFixtures.ENCLOSURE_CAPACITY));
+            }
+        }
+    }
+
+    @Benchmark
+    public int addAnimalLoop() {
+        int added = 0;
+        for (Animal animal : animals) {
+            if (zoo.addAnimal(animal)) added++;
+        }
+        return added;
+    }
+
+    @Benchmark
+    public BulkResult addAll() {
+        return zoo.addAll(animals);
+    }
+}
@@ -0,0 +1,88 @@
+package zoo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zoo.Animal;
+import zoo.Zoo;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Readers and writers sharing one zoo: six threads looking animals up while two
+// add and remove animals of their own
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentZooBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private Zoo zoo;
+    private final AtomicInteger writers = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        zoo = ZooFixtures.generate(size, 42);
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        private final Random random = new Random();
+        private int size;
+
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentZooBenchmark shared) {
+            size = shared.size;
+        }
+
+        String nextId() {
+            return ZooFixtures.id(random.nextInt(size));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private Animal spare;
+
+        // Every writer gets an id above the generated range, so writers never collide
+        @Setup(Level.Trial)
+        public void setUp(ConcurrentZooBenchmark shared) {
+            int index = shared.size + shared.writers.getAndIncrement();
+            spare = ZooFixtures.animal(new Random(index), index, shared.size);
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public Animal read(Reader reader) {
+        return zoo.getById(reader.nextId());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public Animal write(Writer writer) {
+        zoo.addAnimal(writer.spare);
+        return zoo.removeById(writer.spare.getId());
+    }
+
+    @Benchmark
+    @Group("listing")
+    @GroupThreads(6)
+    public List<Animal> list() {
+        return zoo.listSortedByType();
+    }
+
+    @Benchmark
+    @Group("listing")
+    @GroupThreads(2)
+    public Animal change(Writer writer) {
+        zoo.addAnimal(writer.spare);
+        return zoo.removeById(writer.spare.getId());
+    }
+}
@@ -0,0 +1,50 @@
+package zoo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zoo.Animal;
+import zoo.AnimalFactory;
+import zoo.Enclosure;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnclosureBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int capacity;
+
+    private Enclosure enclosure;
+    private Animal resident;
+    private Animal spare;
+
+    // Filled to one below capacity so the spare animal always fits
+    @Setup(Level.Trial)
+    public void setUp() {
+        enclosure = new Enclosure("BENCH", "Savanna", capacity);
+        for (int i = 0; i < capacity - 1; i++) {
+            enclosure.addAnimal(AnimalFactory.createAnimal("Lion", ZooFixtures.id(i), "Lion" + i, 5));
+        }
+        resident = enclosure.getAnimals().get((capacity - 1) / 2);
+        spare = AnimalFactory.createAnimal("Elephant", ZooFixtures.id(capacity), "Spare", 5);
+    }
+
+    @Benchmark
+    public boolean addAnimalThenRemove() {
+        enclosure.addAnimal(spare);
+        return enclosure.removeAnimal(spare);
+    }
+
+    @Benchmark
+    public boolean containsAnimal() {
+        return enclosure.containsAnimal(resident);
+    }
+
+    @Benchmark
+    public boolean isFull() {
+        return enclosure.isFull();
+    }
+}
@@ -0,0 +1,44 @@
+package zoo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zoo.FeedingScheduler;
+import zoo.Zoo;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// A full feeding round, with the fork/join pool sized from one thread upwards
+// to show how planning scales across cores
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedingSchedulerBenchmark {
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private FeedingScheduler scheduler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Zoo zoo = ZooFixtures.generate(size, 42);
+        pool = new ForkJoinPool(threads);
+        scheduler = new FeedingScheduler(zoo, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public FeedingScheduler.Plan plan() {
+        return scheduler.plan();
+    }
+}
@@ -0,0 +1,54 @@
+package zoo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zoo.AnimalFactory;
+import zoo.HealthRecord;
+import zoo.Zoo;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// A single long-lived animal's history, spread evenly over the last ten years
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HealthRecordBenchmark {
+    private static final int HISTORY_DAYS = 3650;
+
+    @Param({"100", "10000", "1000000"})
+    public int entries;
+
+    private HealthRecord record;
+    private LocalDate windowStart;
+    private LocalDate windowEnd;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Zoo zoo = new Zoo();
+        zoo.addAnimal(AnimalFactory.createAnimal("Elephant", "BENCH", "Dumbo", 40));
+        LocalDate today = LocalDate.now();
+        Random random = new Random(42);
+        for (int i = 0; i < entries; i++) {
+            LocalDate date = today.minusDays(random.nextInt(HISTORY_DAYS));
+            zoo.addHealthEntry("BENCH", new HealthRecord.MedicalEntry(date, "Checkup", "Vet" + (i % 20), "None"));
+        }
+        record = zoo.getHealthRecord("BENCH");
+        windowStart = today.minusDays(HISTORY_DAYS / 2);
+        windowEnd = windowStart.plusDays(90);
+    }
+
+    @Benchmark
+    public List<HealthRecord.MedicalEntry> getRecentEntries() {
+        return record.getRecentEntries(30);
+    }
+
+    @Benchmark
+    public List<HealthRecord.MedicalEntry> getEntriesBetween() {
+        return record.getEntriesBetween(windowStart, windowEnd);
+    }
+}
@@ -0,0 +1,132 @@
+package zoo.benchmarks;
+
+import zoo.ZooHttpServer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Not a JMH benchmark: starts a ZooHttpServer on a generated zoo (or targets a
+// running one with --url) and has --clients virtual threads send requests back
+// to back for --seconds. The mix is mostly single-animal lookups, with name
+// searches, small pages and statistics. Prints requests per second and
+// latency percentiles.
+//
+//   java -cp benchmarks/target/benchmarks.jar zoo.benchmarks.HttpLoadTest --animals 100000 --clients 64
+public class HttpLoadTest {
+    public static void main(String[] args) throws Exception {
+        int animals = 100_000;
+        int clients = 64;
+        int seconds = 10;
+        String url = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--animals" -> animals = Integer.parseInt(args[i + 1]);
+                case "--clients" -> clients = Integer.parseInt(args[i + 1]);
+                case "--seconds" -> seconds = Integer.parseInt(args[i + 1]);
+                case "--url" -> url = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        ZooHttpServer server = null;
+        if (url == null) {
+            // As ZooHttpServer.main does; must be set before the first server starts
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+            server = new ZooHttpServer(ZooFixtures.generate(animals, 42), new InetSocketAddress("localhost", 0));
+            server.start();
+            url = "http://localhost:" + server.getPort();
+        }
+
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient client = HttpClient.newBuilder()
+                    .executor(threads)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .build();
+
+            // Warm up the server and the connection pool for a couple of seconds first
+            run(client, threads, url, animals, clients, 2);
+            Result result = run(client, threads, url, animals, clients, seconds);
+            result.print(clients, seconds);
+        } finally {
+            if (server != null) server.close();
+        }
+    }
+
+    private static Result run(HttpClient client, ExecutorService threads, String url, int animals,
+                              int clients, int seconds) throws Exception {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> workers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            long seed = c;
+            workers.add(threads.submit(() -> {
+                Random random = new Random(seed);
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(url + path(random, animals))).build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        if (response.statusCode() >= 400) errors.incrementAndGet();
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        List<long[]> all = new ArrayList<>();
+        for (Future<long[]> worker : workers) all.add(worker.get());
+        return new Result(all, errors.get());
+    }
+
+    // 70% lookups by ID, 15% by name, 10% pages of 20, 5% statistics
+    private static String path(Random random, int animals) {
+        int roll = random.nextInt(100);
+        if (roll < 70) return "/animals/" + ZooFixtures.id(random.nextInt(animals));
+        if (roll < 85) return "/animals?name=" + ZooFixtures.name(random, animals);
+        if (roll < 95) return "/animals?offset=" + random.nextInt(Math.max(1, animals - 20)) + "&limit=20";
+        return "/statistics";
+    }
+
+    private static final class Result {
+        private final long[] latencies;
+        private final long errors;
+
+        Result(List<long[]> perClient, long errors) {
+            this.latencies = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            this.errors = errors;
+        }
+
+        void print(int clients, int seconds) {
+            System.out.printf("%d clients, %d s: %d requests (%d errors), %.0f requests/s%n",
+                    clients, seconds, latencies.length, errors, latencies.length / (double) seconds);
+            if (latencies.length == 0) return;
+            System.out.printf("latency ms: p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                    percentile(50), percentile(90), percentile(99), percentile(99.9),
+                    latencies[latencies.length - 1] / 1e6);
+        }
+
+        private double percentile(double percentile) {
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(latencies.length * percentile / 100) - 1);
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package zoo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zoo.Animal;
+import zoo.Zoo;
+import zoo.ZooStatistics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Per-operation cost of the Zoo API against zoos of growing size. Lookups cycle
+// through a fixed set of keys so they are not all served from one cache line.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZooBenchmark {
+    private static final int KEYS = 1024;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private Zoo zoo;
+    private Animal spare;
+    private final String[] ids = new String[KEYS];
+    // The same IDs as a user might type them
+    private final String[] typedIds = new String[KEYS];
+    private final String[] names = new String[KEYS];
+    private final String[] prefixes = new String[KEYS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        zoo = ZooFixtures.generate(size, 42);
+        Random random = new Random(7);
+        for (int i = 0; i < KEYS; i++) {
+            Animal animal = zoo.getById(ZooFixtures.id(random.nextInt(size)));
+            ids[i] = animal.getId();
+            typedIds[i] = " " + animal.getId().toLowerCase();
+            names[i] = animal.getName();
+            prefixes[i] = animal.getName().substring(0, Math.min(animal.getName().length(), 6));
+        }
+        spare = ZooFixtures.animal(random, size, size);
+    }
+
+    private int nextKey() {
+        return next = (next + 1) & (KEYS - 1);
+    }
+
+    // Adding on its own would grow the zoo every call, so each add is paired with its removal
+    @Benchmark
+    public Animal addAnimalThenRemove() {
+        zoo.addAnimal(spare);
+        return zoo.removeById(spare.getId());
+    }
+
+    @Benchmark
+    public boolean removeByIdThenAdd() {
+        Animal animal = zoo.removeById(ids[nextKey()]);
+        return zoo.addAnimal(animal);
+    }
+
+    @Benchmark
+    public Animal getById() {
+        return zoo.getById(ids[nextKey()]);
+    }
+
+    @Benchmark
+    public Animal getByIdNotNormalized() {
+        return zoo.getById(typedIds[nextKey()]);
+    }
+
+    @Benchmark
+    public List<Animal> getByName() {
+        return zoo.getByName(names[nextKey()]);
+    }
+
+    @Benchmark
+    public List<Animal> getByNamePrefix() {
+        return zoo.getByNamePrefix(prefixes[nextKey()]);
+    }
+
+    @Benchmark
+    public List<Animal> listSortedByType() {
+        return zoo.listSortedByType();
+    }
+
+    // Pays for rebuilding the sorted view after every change
+    @Benchmark
+    public List<Animal> listSortedByTypeAfterChange() {
+        removeByIdThenAdd();
+        return zoo.listSortedByType();
+    }
+
+    @Benchmark
+    public List<Animal> listSortedByTypePage() {
+        return zoo.listSortedByType(size / 2, 50);
+    }
+
+    @Benchmark
+    public Map<String, Integer> countByType() {
+        return zoo.countByType();
+    }
+
+    @Benchmark
+    public ZooStatistics.Snapshot getStatistics() {
+        return zoo.getStatistics();
+    }
+}
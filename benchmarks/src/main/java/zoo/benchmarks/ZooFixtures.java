@@ -0,0 +1,55 @@
+package zoo.benchmarks;
+
+import zoo.Animal;
+import zoo.AnimalFactory;
+import zoo.Enclosure;
+import zoo.Zoo;
+
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+// Deterministic zoos for the benchmarks: the same size and seed always give the
+// same animals, names and enclosures.
+final class ZooFixtures {
+    static final int ENCLOSURE_CAPACITY = 100;
+
+    private ZooFixtures() {
+    }
+
+    static String id(int index) {
+        return String.format("%08X", index);
+    }
+
+    // About ten animals share each name, so name lookups return small groups
+    static String name(Random random, int size) {
+        return "Name" + random.nextInt(Math.max(1, size / 10));
+    }
+
+    static Animal animal(Random random, int index, int size) {
+        String type = AnimalFactory.TYPES.get(random.nextInt(AnimalFactory.TYPES.size()));
+        return AnimalFactory.createAnimal(type, id(index), name(random, size), 1 + random.nextInt(40));
+    }
+
+    // Enough enclosures for every animal to be housed whatever the type mix
+    static Zoo generate(int size, long seed) {
+        Zoo zoo = new Zoo();
+        Set<String> habitats = new LinkedHashSet<>();
+        for (String type : AnimalFactory.TYPES) {
+            habitats.add(AnimalFactory.createAnimal(type, "X", "X", 1).getHabitatType());
+        }
+        int perHabitat = size / ENCLOSURE_CAPACITY + 1;
+        for (String habitat : habitats) {
+            String prefix = habitat.toUpperCase().replace(' ', '_') + "_B";
+            for (int i = 0; i < perHabitat; i++) {
+                zoo.addEnclosure(new Enclosure(prefix + i, habitat, ENCLOSURE_CAPACITY));
+            }
+        }
+
+        Random random = new Random(seed);
+        for (int i = 0; i < size; i++) {
+            zoo.addAnimal(animal(random, i, size));
+        }
+        return zoo;
+    }
+}
@@ -0,0 +1,66 @@
+package zoo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zoo.Animal;
+import zoo.Zoo;
+import zoo.ZooQuery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// ZooQuery answered by scanning every animal against the same queries on the
+// AnimalTable's bitmap indexes. One animal in fifty is critical, so the
+// health filters are the selective ones.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZooQueryBenchmark {
+    @Param({"100000", "1000000", "10000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private Zoo zoo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        zoo = ZooFixtures.generate(size, 42);
+        Random random = new Random(7);
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(50) == 0) zoo.updateHealthStatus(ZooFixtures.id(i), Animal.HealthStatus.CRITICAL);
+        }
+        if (indexed) zoo.enableAnimalTable();
+    }
+
+    @Benchmark
+    public List<Animal> selective() {
+        return zoo.query().health(Animal.HealthStatus.CRITICAL).type("Lion").ageBetween(3, 4).list();
+    }
+
+    @Benchmark
+    public List<Animal> selectiveSortedByName() {
+        return zoo.query().health(Animal.HealthStatus.CRITICAL).ageBetween(7, 7)
+                .sortBy(ZooQuery.Sort.NAME).limit(20).list();
+    }
+
+    @Benchmark
+    public List<Animal> oldestTen() {
+        return zoo.query().type("Monkey").sortBy(ZooQuery.Sort.AGE, true).limit(10).list();
+    }
+
+    @Benchmark
+    public long count() {
+        return zoo.query().health(Animal.HealthStatus.CRITICAL).habitat("Savanna").ageBetween(10, 20).count();
+    }
+
+    @Benchmark
+    public Map<String, Long> countByHealth() {
+        return zoo.query().habitat("Aquatic").countBy(ZooQuery.Group.HEALTH);
+    }
+}
@@ -0,0 +1,78 @@
+package zoo.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import zoo.LoadReport;
+import zoo.Zoo;
+import zoo.ZooStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Whole-file saves and loads, CSV and binary snapshot. Each call is long enough
+// to time on its own, so this runs in single-shot mode.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ZooStorageBenchmark {
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private final ZooStorage storage = new ZooStorage();
+    private Zoo zoo;
+    private Path directory;
+    private String csvPath;
+    private String snapshotPath;
+    private String outputPath;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        zoo = ZooFixtures.generate(size, 42);
+        directory = Files.createTempDirectory("zoo-bench");
+        csvPath = directory.resolve("zoo.csv").toString();
+        snapshotPath = directory.resolve("zoo.snap").toString();
+        outputPath = directory.resolve("out").toString();
+        storage.save(csvPath, zoo);
+        storage.saveSnapshot(snapshotPath, zoo);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void saveCsv() throws IOException {
+        storage.save(outputPath, zoo);
+    }
+
+    @Benchmark
+    public LoadReport loadCsv() throws IOException {
+        return storage.load(csvPath, new Zoo());
+    }
+
+    @Benchmark
+    public LoadReport loadCsvParallel() throws IOException {
+        return storage.loadParallel(csvPath, new Zoo());
+    }
+
+    @Benchmark
+    public void saveSnapshot() throws IOException {
+        storage.saveSnapshot(outputPath, zoo);
+    }
+
+    @Benchmark
+    public LoadReport loadSnapshot() throws IOException {
+        return storage.loadSnapshot(snapshotPath, new Zoo());
+    }
+}
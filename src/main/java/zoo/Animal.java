@@ -0,0 +1,77 @@
+package zoo;
+
+import java.time.LocalDate;
+
+public abstract class Animal {
+    private final String id;
+    private final String name;
+    private final int age;
+    // Shared with every animal of the same kind
+    private final AnimalProfile profile;
+    // Days since 1970-01-01, rather than a LocalDate object per animal
+    private int arrivalDay;
+    private volatile HealthStatus healthStatus;
+
+    public enum HealthStatus {
+        HEALTHY, SICK, CRITICAL, RECOVERING
+    }
+
+    public Animal(String id, String name, int age, String species, String diet, String habitatType) {
+        this(id, name, age, AnimalProfile.of(species, diet, habitatType));
+    }
+
+    protected Animal(String id, String name, int age, AnimalProfile profile) {
+        if (id == null || id.isBlank()) throw new IllegalArgumentException("ID cannot be null or blank");
+        if (name == null || name.isBlank()) throw new IllegalArgumentException("Name cannot be blank");
+        if (age < 0) throw new IllegalArgumentException("Age cannot be negative");
+        if (profile == null) throw new IllegalArgumentException("Profile cannot be null");
+
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.profile = profile;
+        this.arrivalDay = (int) LocalDate.now().toEpochDay();
+        this.healthStatus = HealthStatus.HEALTHY;
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public int getAge() { return age; }
+    public String getSpecies() { return profile.getSpecies(); }
+    public String getDiet() { return profile.getDiet(); }
+    public String getHabitatType() { return profile.getHabitat().getName(); }
+    public Habitat getHabitat() { return profile.getHabitat(); }
+    public AnimalProfile getProfile() { return profile; }
+    public LocalDate getArrivalDate() { return LocalDate.ofEpochDay(arrivalDay); }
+    int getArrivalDay() { return arrivalDay; }
+    public HealthStatus getHealthStatus() { return healthStatus; }
+
+    // Only Zoo.updateHealthStatus and the loaders may call this: the zoo's
+    // statistics, table and journal all follow status changes through Zoo
+    void setHealthStatus(HealthStatus healthStatus) {
+        this.healthStatus = healthStatus;
+    }
+
+    // For the loaders, which restore the saved day before adding the animal;
+    // new animals arrive today
+    void setArrivalDay(int arrivalDay) {
+        this.arrivalDay = arrivalDay;
+    }
+
+    public String getType() {
+        return this.getClass().getSimpleName();
+    }
+
+    public abstract String makeSound();
+
+    public boolean needsMedicalAttention() {
+        return healthStatus == HealthStatus.SICK || healthStatus == HealthStatus.CRITICAL;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{id='%s', name='%s', age=%d, species='%s', diet='%s', habitat='%s', health=%s}",
+                getType(), id, name, age, getSpecies(), getDiet(), getHabitatType(), healthStatus);
+    }
+}
\ No newline at end of file
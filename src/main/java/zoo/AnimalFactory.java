@@ -1,4 +1,10 @@
+package zoo;
+
+import java.util.List;
+
 public class AnimalFactory {
+    public static final List<String> TYPES = List.of("Lion", "Dolphin", "Elephant", "Penguin", "Monkey");
+
     public static Animal createAnimal(String type, String id, String name, int age) {
         String normalizedType = (type == null) ? "" : type.trim().toUpperCase();
 
@@ -0,0 +1,116 @@
+package zoo;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hands out new animal IDs: '_' and nine base-36 digits of a sequence number,
+// e.g. "_00000002S". The prefix is reserved: IDs that people type in are
+// checked with requireUserId, so only IDs this class made (or loaded copies of
+// them) have that form, and only those move the high-water mark. Ten
+// characters still fit AnimalIdMap's packed keys.
+//
+// Each platform thread takes a block of sequence numbers from a shared counter
+// and numbers from it without touching shared state, so concurrent intake does
+// not contend. Virtual threads are short-lived and would strand most of a
+// block, so they take one number at a time. Numbers below the high-water mark
+// are never handed out again; ZooStorage persists the mark so that holds
+// across restarts, and Zoo advances it past any generated ID it is given,
+// which covers journal replay.
+public class AnimalIdGenerator {
+    public static final char PREFIX = '_';
+    public static final int ID_LENGTH = 10;
+    static final int BLOCK_SIZE = 1024;
+    private static final int RADIX = 36;
+    private static final int DIGITS_LENGTH = ID_LENGTH - 1;
+    private static final long MAX_SEQUENCE = pow(RADIX, DIGITS_LENGTH) - 1;
+    private static final char[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+    // The next number not yet given to any thread
+    private final AtomicLong reserved = new AtomicLong();
+    // Blocks claimed below this were overtaken by advanceTo and are dropped
+    private volatile long floor;
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    public String next() {
+        return format(nextSequence());
+    }
+
+    long nextSequence() {
+        if (Thread.currentThread().isVirtual()) return claim(1);
+        Block block = blocks.get();
+        if (block.next == block.limit || block.next < floor) {
+            block.next = claim(BLOCK_SIZE);
+            block.limit = block.next + BLOCK_SIZE;
+        }
+        return block.next++;
+    }
+
+    // Everything below this may have been handed out; what ZooStorage saves
+    public long getHighWaterMark() {
+        return reserved.get();
+    }
+
+    // Never hands out a number below the given mark from now on
+    public void advanceTo(long highWaterMark) {
+        if (highWaterMark < 0 || highWaterMark > MAX_SEQUENCE + 1) {
+            throw new IllegalArgumentException("ID high-water mark out of range: " + highWaterMark);
+        }
+        if (reserved.get() >= highWaterMark) return;
+        long mark = reserved.accumulateAndGet(highWaterMark, Math::max);
+        synchronized (this) {
+            if (floor < mark) floor = mark;
+        }
+    }
+
+    // The sequence number of an ID in the form next() gives, or -1. Expects a
+    // normalized (upper-case) ID.
+    public static long sequenceOf(String normalizedId) {
+        if (normalizedId.length() != ID_LENGTH || normalizedId.charAt(0) != PREFIX) return -1;
+        long sequence = 0;
+        for (int i = 1; i < ID_LENGTH; i++) {
+            char c = normalizedId.charAt(i);
+            int digit = c >= '0' && c <= '9' ? c - '0' : c >= 'A' && c <= 'Z' ? c - 'A' + 10 : -1;
+            if (digit < 0) return -1;
+            sequence = sequence * RADIX + digit;
+        }
+        return sequence;
+    }
+
+    // Returns the ID, trimmed, for an animal someone is adding by hand; the
+    // generated form is refused so a typed ID can never take a future one
+    public static String requireUserId(String id) {
+        String trimmed = id == null ? "" : id.trim();
+        if (!trimmed.isEmpty() && trimmed.charAt(0) == PREFIX) {
+            throw new IllegalArgumentException("IDs starting with '" + PREFIX + "' are reserved for generated IDs: " + trimmed);
+        }
+        return trimmed;
+    }
+
+    static String format(long sequence) {
+        char[] id = new char[ID_LENGTH];
+        id[0] = PREFIX;
+        for (int i = ID_LENGTH - 1; i >= 1; i--) {
+            id[i] = DIGITS[(int) (sequence % RADIX)];
+            sequence /= RADIX;
+        }
+        return new String(id);
+    }
+
+    private long claim(int count) {
+        long start = reserved.getAndAdd(count);
+        if (start + count - 1 > MAX_SEQUENCE) {
+            throw new IllegalStateException("Animal ID space exhausted");
+        }
+        return start;
+    }
+
+    private static long pow(long base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) result *= base;
+        return result;
+    }
+
+    private static class Block {
+        private long next;
+        private long limit;
+    }
+}
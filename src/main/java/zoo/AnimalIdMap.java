@@ -0,0 +1,319 @@
+package zoo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+// Animal ID -> value, with IDs matched the way Zoo normalizes them (trimmed,
+// upper case). IDs of up to ten letters, digits, '_', '-' or '.' - generated
+// IDs and the usual hand-typed ones - are packed into a long and kept in
+// open-addressing tables, so a lookup hashes and compares primitives and
+// allocates nothing, whatever the case of the ID it was given. Any other ID
+// goes to a ConcurrentHashMap under its normalized string.
+//
+// Safe to share. The packed tables are split into segments, each behind a
+// StampedLock: lookups are optimistic reads that only take the lock when a
+// write to their segment overlapped them, and writes lock one segment.
+public class AnimalIdMap<V> {
+    static final int SEGMENT_BITS = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    static final int INITIAL_SLOTS = 16;
+    private static final float MAX_LOAD = 0.6f;
+    private static final int MAX_PACKED_LENGTH = 10;
+    private static final int CHAR_BITS = 6;
+    // Never a packed key (the length nibble is at least 1), so it marks free slots
+    private static final long NOT_PACKED = 0;
+    // 0 = not allowed in a packed ID, else the 6-bit code
+    private static final byte[] CODES = new byte[128];
+
+    static {
+        byte code = 1;
+        for (char c = '0'; c <= '9'; c++) CODES[c] = code++;
+        for (char c = 'A'; c <= 'Z'; c++) {
+            CODES[c] = code;
+            CODES[Character.toLowerCase(c)] = code++;
+        }
+        CODES['_'] = code++;
+        CODES['-'] = code++;
+        CODES['.'] = code;
+    }
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final ConcurrentHashMap<String, V> unpacked = new ConcurrentHashMap<>();
+
+    public AnimalIdMap() {
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment(INITIAL_SLOTS);
+    }
+
+    // The canonical form of an ID; null counts as the empty ID
+    public static String normalize(String id) {
+        return id == null ? "" : id.trim().toUpperCase(Locale.ROOT);
+    }
+
+    public V get(String id) {
+        long key = keyOf(id);
+        if (key == NOT_PACKED) return unpacked.get(normalize(id));
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.tryOptimisticRead();
+        Object value = segment.find(key, hash);
+        if (!segment.lock.validate(stamp)) {
+            stamp = segment.lock.readLock();
+            try {
+                value = segment.find(key, hash);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return cast(value);
+    }
+
+    public boolean containsKey(String id) {
+        return get(id) != null;
+    }
+
+    public V put(String id, V value) {
+        return store(id, value, false);
+    }
+
+    public V putIfAbsent(String id, V value) {
+        return store(id, value, true);
+    }
+
+    public V remove(String id) {
+        long key = keyOf(id);
+        if (key == NOT_PACKED) return unpacked.remove(normalize(id));
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            return cast(segment.remove(key, hash));
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        int size = unpacked.size();
+        for (Segment segment : segments) size += segment.size;
+        return size;
+    }
+
+    // Grows the tables once for this many entries in all, instead of doubling
+    // their way up during a large intake
+    public void ensureCapacity(int expectedSize) {
+        // Keys spread evenly over the segments; a little slack covers the unevenness
+        int perSegment = expectedSize / SEGMENTS + expectedSize / (SEGMENTS * 8) + 1;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.ensureCapacity(perSegment);
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    // A copy of the values, weakly consistent like ConcurrentHashMap's views
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size());
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                Table table = segment.table;
+                for (int i = 0; i < table.keys.length; i++) {
+                    if (table.keys[i] != NOT_PACKED) values.add(cast(table.values[i]));
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        values.addAll(unpacked.values());
+        return values;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.table = new Table(INITIAL_SLOTS);
+                segment.size = 0;
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+        unpacked.clear();
+    }
+
+    private V store(String id, V value, boolean onlyIfAbsent) {
+        if (value == null) throw new IllegalArgumentException("Value cannot be null");
+        long key = keyOf(id);
+        if (key == NOT_PACKED) {
+            return onlyIfAbsent ? unpacked.putIfAbsent(normalize(id), value) : unpacked.put(normalize(id), value);
+        }
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+        long stamp = segment.lock.writeLock();
+        try {
+            return cast(segment.store(key, hash, value, onlyIfAbsent));
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    // The packed form of the normalized ID, or NOT_PACKED. Works on the ID as
+    // given, so the usual case allocates nothing; only IDs with characters
+    // outside ASCII are normalized first, as upper-casing may turn them into
+    // packable ones (e.g. 'ı' to 'I').
+    static long keyOf(String id) {
+        if (id == null) return NOT_PACKED;
+        int start = 0;
+        int end = id.length();
+        while (start < end && id.charAt(start) <= ' ') start++;
+        while (end > start && id.charAt(end - 1) <= ' ') end--;
+        int length = end - start;
+        if (length == 0 || length > MAX_PACKED_LENGTH) return NOT_PACKED;
+
+        long key = length;
+        for (int i = start; i < end; i++) {
+            char c = id.charAt(i);
+            if (c >= 128) return packNormalized(id);
+            if (CODES[c] == 0) return NOT_PACKED;
+            key = key << CHAR_BITS | CODES[c];
+        }
+        // Length in the top nibble, characters right-aligned below it
+        return key << (CHAR_BITS * (MAX_PACKED_LENGTH - length)) | (long) length << 60;
+    }
+
+    private static long packNormalized(String id) {
+        String normalized = normalize(id);
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) >= 128) return NOT_PACKED;
+        }
+        return normalized.isEmpty() ? NOT_PACKED : keyOf(normalized);
+    }
+
+    // Spreads the key's bits over the whole long (the MurmurHash3 finalizer)
+    static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        return key ^ key >>> 33;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> (64 - SEGMENT_BITS))];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V cast(Object value) {
+        return (V) value;
+    }
+
+    // Keys and values are swapped together on resize, so a reader that picked
+    // up one table never indexes into another's arrays
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+        private final int mask;
+
+        Table(int slots) {
+            keys = new long[slots];
+            values = new Object[slots];
+            mask = slots - 1;
+        }
+    }
+
+    // Linear probing; removals shift later entries back instead of leaving markers
+    private static final class Segment {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table;
+        private volatile int size;
+
+        Segment(int slots) {
+            table = new Table(slots);
+        }
+
+        // Bounded, as an optimistic read can see a table mid-change
+        Object find(long key, long hash) {
+            Table table = this.table;
+            int index = (int) hash & table.mask;
+            for (int probes = 0; probes <= table.mask; probes++) {
+                long found = table.keys[index];
+                if (found == key) return table.values[index];
+                if (found == NOT_PACKED) return null;
+                index = (index + 1) & table.mask;
+            }
+            return null;
+        }
+
+        Object store(long key, long hash, Object value, boolean onlyIfAbsent) {
+            ensureCapacity(size + 1);
+            Table table = this.table;
+            int index = (int) hash & table.mask;
+            while (true) {
+                long found = table.keys[index];
+                if (found == NOT_PACKED) {
+                    table.values[index] = value;
+                    table.keys[index] = key;
+                    size++;
+                    return null;
+                }
+                if (found == key) {
+                    Object previous = table.values[index];
+                    if (!onlyIfAbsent) table.values[index] = value;
+                    return previous;
+                }
+                index = (index + 1) & table.mask;
+            }
+        }
+
+        Object remove(long key, long hash) {
+            Table table = this.table;
+            int index = (int) hash & table.mask;
+            while (true) {
+                long found = table.keys[index];
+                if (found == NOT_PACKED) return null;
+                if (found == key) break;
+                index = (index + 1) & table.mask;
+            }
+            Object previous = table.values[index];
+            // Move back any later entry whose probe run passes through the hole
+            int hole = index;
+            int next = (hole + 1) & table.mask;
+            while (table.keys[next] != NOT_PACKED) {
+                int home = (int) mix(table.keys[next]) & table.mask;
+                if (((next - home) & table.mask) >= ((next - hole) & table.mask)) {
+                    table.keys[hole] = table.keys[next];
+                    table.values[hole] = table.values[next];
+                    hole = next;
+                }
+                next = (next + 1) & table.mask;
+            }
+            table.keys[hole] = NOT_PACKED;
+            table.values[hole] = null;
+            size--;
+            return previous;
+        }
+
+        void ensureCapacity(int entries) {
+            Table table = this.table;
+            if (entries <= table.keys.length * MAX_LOAD) return;
+            int slots = table.keys.length;
+            while (entries > slots * MAX_LOAD) slots <<= 1;
+            Table grown = new Table(slots);
+            for (int i = 0; i < table.keys.length; i++) {
+                long key = table.keys[i];
+                if (key == NOT_PACKED) continue;
+                int index = (int) mix(key) & grown.mask;
+                while (grown.keys[index] != NOT_PACKED) index = (index + 1) & grown.mask;
+                grown.keys[index] = key;
+                grown.values[index] = table.values[i];
+            }
+            this.table = grown;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package zoo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// The species, diet and habitat an animal shares with every other animal of
+// its kind. Profiles are interned, so each animal holds one reference to a
+// shared profile instead of three strings of its own.
+public final class AnimalProfile {
+    private static final Map<String, AnimalProfile> PROFILES = new ConcurrentHashMap<>();
+
+    private final String species;
+    private final String diet;
+    private final Habitat habitat;
+
+    private AnimalProfile(String species, String diet, Habitat habitat) {
+        this.species = species;
+        this.diet = diet;
+        this.habitat = habitat;
+    }
+
+    public static AnimalProfile of(String species, String diet, String habitatType) {
+        if (species == null || species.isBlank()) throw new IllegalArgumentException("Species cannot be blank");
+        if (diet == null || diet.isBlank()) throw new IllegalArgumentException("Diet cannot be blank");
+        Habitat habitat = Habitat.of(habitatType);
+        String key = species + '\0' + diet + '\0' + habitatType;
+        return PROFILES.computeIfAbsent(key, k -> new AnimalProfile(species, diet, habitat));
+    }
+
+    public String getSpecies() { return species; }
+    public String getDiet() { return diet; }
+    public Habitat getHabitat() { return habitat; }
+}
@@ -0,0 +1,581 @@
+package zoo;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+// The zoo's animals laid out column by column: one primitive array each for
+// age, type, species profile, habitat, health status and arrival day, plus the
+// Animal itself for filters that return animals. Aggregations are plain loops
+// over those arrays instead of walks through a map of Animal objects.
+//
+// Rows are packed: removing an animal moves the last row into its place. The
+// table keeps each animal's row by ID, as Zoo keys its own maps.
+// Updates take a short write lock; queries hold the read lock for their scan.
+//
+// ZooQuery filters run on bitmap indexes kept alongside the columns: rows per
+// type, habitat and health status, and rows per band of AGE_BAND_YEARS ages in
+// age order. A query starts from the most selective field's bitmap and ANDs the
+// others into it, one plain loop over the words per field; a field whose bitmaps
+// cover every row is skipped, and one that covers none ends the query before it
+// starts. An age range that cuts through a band takes the whole band from the
+// index and checks the age column for the rows that make it through.
+public class AnimalTable {
+    private static final int INITIAL_CAPACITY = 1024;
+    // Bitmaps are combined this many words at a time, so a stretch of the result
+    // stays in the L1 cache while every field is applied and its rows are read
+    private static final int CHUNK_WORDS = 512;
+    // Ages per age index bitmap. One bitmap per distinct age would cost N/8 bytes
+    // for every age present, about 1.25 MB each at 10M animals.
+    private static final int AGE_BAND_YEARS = 5;
+    private static final Animal.HealthStatus[] STATUSES = Animal.HealthStatus.values();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+    private Animal[] animals = new Animal[INITIAL_CAPACITY];
+    private int[] ages = new int[INITIAL_CAPACITY];
+    private short[] types = new short[INITIAL_CAPACITY];
+    private short[] profiles = new short[INITIAL_CAPACITY];
+    private short[] habitats = new short[INITIAL_CAPACITY];
+    private byte[] health = new byte[INITIAL_CAPACITY];
+    private int[] arrivalDays = new int[INITIAL_CAPACITY];
+    // Animal ID -> row
+    private final AnimalIdMap<Integer> rows = new AnimalIdMap<>();
+
+    // Dense codes for the values the short columns hold
+    private final Dictionary<Class<?>> typeCodes = new Dictionary<>();
+    private final Dictionary<AnimalProfile> profileCodes = new Dictionary<>();
+    private final Dictionary<Habitat> habitatCodes = new Dictionary<>();
+
+    // Indexes, by the same codes as the columns
+    private final List<RowBitmap> typeRows = new ArrayList<>();
+    private final List<RowBitmap> habitatRows = new ArrayList<>();
+    private final RowBitmap[] healthRows = new RowBitmap[STATUSES.length];
+    // Age band (age / AGE_BAND_YEARS) -> rows
+    private final TreeMap<Integer, RowBitmap> ageRows = new TreeMap<>();
+
+    public AnimalTable() {
+        for (int i = 0; i < healthRows.length; i++) healthRows[i] = new RowBitmap();
+    }
+
+    public void add(Animal animal) {
+        lock.writeLock().lock();
+        try {
+            if (size == animals.length) grow();
+            int row = size++;
+            animals[row] = animal;
+            ages[row] = animal.getAge();
+            types[row] = typeCodes.codeOf(animal.getClass());
+            profiles[row] = profileCodes.codeOf(animal.getProfile());
+            habitats[row] = habitatCodes.codeOf(animal.getHabitat());
+            health[row] = (byte) animal.getHealthStatus().ordinal();
+            arrivalDays[row] = animal.getArrivalDay();
+            rows.put(animal.getId(), row);
+            index(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(Animal animal) {
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(animal);
+            if (row < 0) return false;
+            int last = --size;
+            rows.remove(animal.getId());
+            unindex(row);
+            if (row != last) {
+                unindex(last);
+                animals[row] = animals[last];
+                ages[row] = ages[last];
+                types[row] = types[last];
+                profiles[row] = profiles[last];
+                habitats[row] = habitats[last];
+                health[row] = health[last];
+                arrivalDays[row] = arrivalDays[last];
+                rows.put(animals[row].getId(), row);
+                index(row);
+            }
+            animals[last] = null;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Call after the animal's health status has changed
+    public void healthChanged(Animal animal) {
+        lock.writeLock().lock();
+        try {
+            int row = rowOf(animal);
+            if (row < 0) return;
+            healthRows[health[row]].clear(row);
+            health[row] = (byte) animal.getHealthStatus().ordinal();
+            healthRows[health[row]].set(row);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Long> countByType() {
+        lock.readLock().lock();
+        try {
+            long[] counts = new long[typeCodes.size()];
+            for (int i = 0; i < size; i++) counts[types[i]]++;
+            Map<String, Long> result = new TreeMap<>();
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) result.merge(typeCodes.valueOf(code).getSimpleName(), counts[code], Long::sum);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Long> countByHabitat() {
+        lock.readLock().lock();
+        try {
+            long[] counts = new long[habitatCodes.size()];
+            for (int i = 0; i < size; i++) counts[habitats[i]]++;
+            Map<String, Long> result = new TreeMap<>();
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) result.put(habitatCodes.valueOf(code).getName(), counts[code]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<Animal.HealthStatus, Long> countByHealth() {
+        lock.readLock().lock();
+        try {
+            Animal.HealthStatus[] statuses = Animal.HealthStatus.values();
+            long[] counts = new long[statuses.length];
+            for (int i = 0; i < size; i++) counts[health[i]]++;
+            Map<Animal.HealthStatus, Long> result = new EnumMap<>(Animal.HealthStatus.class);
+            for (Animal.HealthStatus status : statuses) result.put(status, counts[status.ordinal()]);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Species -> animals per age band; index i counts ages [i * bandWidth, (i + 1) * bandWidth)
+    public Map<String, long[]> ageHistogramBySpecies(int bandWidth) {
+        if (bandWidth <= 0) throw new IllegalArgumentException("Band width must be positive");
+        lock.readLock().lock();
+        try {
+            int maxAge = 0;
+            for (int i = 0; i < size; i++) maxAge = Math.max(maxAge, ages[i]);
+            int bands = maxAge / bandWidth + 1;
+
+            // One flat array, a row of bands per profile
+            long[] counts = new long[profileCodes.size() * bands];
+            for (int i = 0; i < size; i++) counts[profiles[i] * bands + ages[i] / bandWidth]++;
+
+            Map<String, long[]> result = new TreeMap<>();
+            for (int code = 0; code < profileCodes.size(); code++) {
+                long[] row = Arrays.copyOfRange(counts, code * bands, (code + 1) * bands);
+                if (Arrays.stream(row).anyMatch(count -> count > 0)) {
+                    result.merge(profileCodes.valueOf(code).getSpecies(), row, AnimalTable::addInto);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double averageAge() {
+        lock.readLock().lock();
+        try {
+            long total = 0;
+            for (int i = 0; i < size; i++) total += ages[i];
+            return size == 0 ? 0 : (double) total / size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Both dates inclusive
+    public long countArrivedBetween(LocalDate from, LocalDate to) {
+        int first = (int) from.toEpochDay();
+        int last = (int) to.toEpochDay();
+        lock.readLock().lock();
+        try {
+            long count = 0;
+            for (int i = 0; i < size; i++) {
+                int day = arrivalDays[i];
+                if (day >= first && day <= last) count++;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Animal> needingMedicalAttention() {
+        lock.readLock().lock();
+        try {
+            Dimension ill = new Dimension("health", List.of(healthRows[Animal.HealthStatus.SICK.ordinal()],
+                    healthRows[Animal.HealthStatus.CRITICAL.ordinal()]));
+            List<Animal> result = new ArrayList<>(ill.estimate);
+            forEachMatch(List.of(ill), null, row -> result.add(animals[row]));
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The query's matches in its order, at most its limit of them
+    List<Animal> select(ZooQuery query) {
+        return select(query, true);
+    }
+
+    List<Animal> select(ZooQuery query, boolean ordered) {
+        lock.readLock().lock();
+        try {
+            List<Dimension> plan = plan(query);
+            if (plan == null) return new ArrayList<>();
+            int limit = ordered ? query.getLimit() : Integer.MAX_VALUE;
+            if (ordered && query.getSort() == ZooQuery.Sort.AGE && limit < size) return selectByAge(query, plan);
+
+            List<Animal> matches = new ArrayList<>();
+            // Unsorted, the first rows found will do
+            int wanted = ordered && query.getSort() == null ? limit : Integer.MAX_VALUE;
+            if (wanted == 0) return matches;
+            forEachMatch(plan, query, row -> {
+                matches.add(animals[row]);
+                return matches.size() < wanted;
+            });
+            return ordered ? query.sortAndLimit(matches) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long count(ZooQuery query) {
+        lock.readLock().lock();
+        try {
+            List<Dimension> plan = plan(query);
+            return plan == null ? 0 : count(plan, query);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // TYPE, HABITAT or HEALTH; each group is counted as one more bitmap in the
+    // AND, so no row is visited unless an arrival range needs checking
+    Map<String, Long> countBy(ZooQuery query, ZooQuery.Group group) {
+        lock.readLock().lock();
+        try {
+            Map<String, Long> counts = new TreeMap<>();
+            List<Dimension> plan = plan(query);
+            if (plan == null) return counts;
+            List<RowBitmap> groups = switch (group) {
+                case TYPE -> typeRows;
+                case HABITAT -> habitatRows;
+                case HEALTH -> Arrays.asList(healthRows);
+                case ENCLOSURE -> throw new IllegalArgumentException("Enclosures are not indexed");
+            };
+            for (int code = 0; code < groups.size(); code++) {
+                if (groups.get(code).cardinality() == 0) continue;
+                List<Dimension> grouped = new ArrayList<>(plan);
+                grouped.add(new Dimension("group", List.of(groups.get(code))));
+                grouped.sort(Comparator.comparingInt(dimension -> dimension.estimate));
+                long count = count(grouped, query);
+                if (count > 0) counts.merge(groupName(group, code), count, Long::sum);
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    String explain(ZooQuery query) {
+        lock.readLock().lock();
+        try {
+            List<Dimension> plan = plan(query);
+            if (plan == null) return "no rows can match";
+            StringBuilder out = new StringBuilder();
+            if (plan.isEmpty()) {
+                out.append("scan all ").append(size).append(" rows");
+            } else {
+                out.append("AND of");
+                for (Dimension dimension : plan) {
+                    out.append(' ').append(dimension.label).append(" (").append(dimension.estimate).append(" rows)");
+                }
+            }
+            if (checksAge(query)) out.append(", then check age");
+            if (query.hasArrivalRange()) out.append(", then check arrival day");
+            if (query.getSort() == ZooQuery.Sort.AGE && query.getLimit() < size) {
+                out.append(", walking the age index until the limit is reached");
+            } else if (query.getSort() != null) {
+                out.append(", then sort by ").append(query.getSort().name().toLowerCase(Locale.ROOT));
+            }
+            return out.toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The bitmaps for each field the query filters on, most selective first;
+    // null if some field can match no row. Caller holds the read lock.
+    private List<Dimension> plan(ZooQuery query) {
+        List<Dimension> plan = new ArrayList<>();
+        if (query.getTypes() != null) {
+            List<RowBitmap> bitmaps = new ArrayList<>();
+            for (int code = 0; code < typeCodes.size(); code++) {
+                String name = typeCodes.valueOf(code).getSimpleName().toLowerCase(Locale.ROOT);
+                if (query.getTypes().contains(name)) bitmaps.add(typeRows.get(code));
+            }
+            plan.add(new Dimension("type", bitmaps));
+        }
+        if (query.getHabitats() != null) {
+            List<RowBitmap> bitmaps = new ArrayList<>();
+            for (int code = 0; code < habitatCodes.size(); code++) {
+                if (query.getHabitats().contains(habitatCodes.valueOf(code).getName())) bitmaps.add(habitatRows.get(code));
+            }
+            plan.add(new Dimension("habitat", bitmaps));
+        }
+        if (query.getStatuses() != null) {
+            List<RowBitmap> bitmaps = new ArrayList<>();
+            for (Animal.HealthStatus status : query.getStatuses()) bitmaps.add(healthRows[status.ordinal()]);
+            plan.add(new Dimension("health", bitmaps));
+        }
+        if (query.hasAgeRange()) {
+            plan.add(new Dimension("age", new ArrayList<>(ageBands(query).values())));
+        }
+        for (Dimension dimension : plan) {
+            if (dimension.estimate == 0) return null;
+        }
+        plan.removeIf(dimension -> dimension.estimate == size);
+        plan.sort(Comparator.comparingInt(dimension -> dimension.estimate));
+        return plan;
+    }
+
+    // The age bands that overlap the query's age range, in age order
+    private NavigableMap<Integer, RowBitmap> ageBands(ZooQuery query) {
+        if (!query.hasAgeRange()) return ageRows;
+        int first = Math.floorDiv(query.getMinAge(), AGE_BAND_YEARS);
+        int last = Math.floorDiv(query.getMaxAge(), AGE_BAND_YEARS);
+        return first > last ? Collections.emptyNavigableMap() : ageRows.subMap(first, true, last, true);
+    }
+
+    // Whether the age range starts or ends inside a band, so rows must be checked
+    private static boolean checksAge(ZooQuery query) {
+        return query.hasAgeRange() && (Math.floorMod(query.getMinAge(), AGE_BAND_YEARS) != 0
+                || Math.floorMod((long) query.getMaxAge() + 1, AGE_BAND_YEARS) != 0);
+    }
+
+    // Top-k by age: visits age bands in order, sorting the matches within one
+    // band at a time, and stops as soon as it has the limit
+    private List<Animal> selectByAge(ZooQuery query, List<Dimension> plan) {
+        NavigableMap<Integer, RowBitmap> bands = ageBands(query);
+        if (query.isDescending()) bands = bands.descendingMap();
+        Comparator<Animal> order = query.comparator();
+        List<Animal> matches = new ArrayList<>();
+        int limit = query.getLimit();
+        for (RowBitmap rows : bands.values()) {
+            if (matches.size() >= limit) break;
+            List<Dimension> inBand = new ArrayList<>(plan);
+            inBand.removeIf(dimension -> dimension.label.equals("age"));
+            inBand.add(new Dimension("age", List.of(rows)));
+            inBand.sort(Comparator.comparingInt(dimension -> dimension.estimate));
+            List<Animal> band = new ArrayList<>();
+            forEachMatch(inBand, query, row -> {
+                band.add(animals[row]);
+                return true;
+            });
+            band.sort(order);
+            matches.addAll(band.subList(0, Math.min(band.size(), limit - matches.size())));
+        }
+        return matches;
+    }
+
+    private long count(List<Dimension> plan, ZooQuery query) {
+        if (!query.hasArrivalRange() && !checksAge(query)) {
+            if (plan.isEmpty()) return size;
+            if (plan.size() == 1) return plan.get(0).estimate;
+            long count = 0;
+            long[] chunk = new long[CHUNK_WORDS];
+            long[] scratch = new long[CHUNK_WORDS];
+            int words = (size + 63) >>> 6;
+            for (int from = 0; from < words; from += CHUNK_WORDS) {
+                int length = Math.min(CHUNK_WORDS, words - from);
+                intersect(plan, from, length, chunk, scratch);
+                for (int i = 0; i < length; i++) count += Long.bitCount(chunk[i]);
+            }
+            return count;
+        }
+        long[] count = new long[1];
+        forEachMatch(plan, query, row -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    // Calls visitor with each matching row in row order until it returns false.
+    // A null query checks the bitmaps only.
+    private void forEachMatch(List<Dimension> plan, ZooQuery query, IntPredicate visitor) {
+        boolean checkArrival = query != null && query.hasArrivalRange();
+        int firstDay = checkArrival ? query.getFirstArrivalDay() : 0;
+        int lastDay = checkArrival ? query.getLastArrivalDay() : 0;
+        boolean checkAge = query != null && checksAge(query);
+        int minAge = checkAge ? query.getMinAge() : 0;
+        int maxAge = checkAge ? query.getMaxAge() : 0;
+        if (plan.isEmpty()) {
+            for (int row = 0; row < size; row++) {
+                if (checkArrival && (arrivalDays[row] < firstDay || arrivalDays[row] > lastDay)) continue;
+                if (checkAge && (ages[row] < minAge || ages[row] > maxAge)) continue;
+                if (!visitor.test(row)) return;
+            }
+            return;
+        }
+        long[] chunk = new long[CHUNK_WORDS];
+        long[] scratch = new long[CHUNK_WORDS];
+        int words = (size + 63) >>> 6;
+        for (int from = 0; from < words; from += CHUNK_WORDS) {
+            int length = Math.min(CHUNK_WORDS, words - from);
+            intersect(plan, from, length, chunk, scratch);
+            for (int i = 0; i < length; i++) {
+                long bits = chunk[i];
+                while (bits != 0) {
+                    int row = ((from + i) << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    if (checkArrival && (arrivalDays[row] < firstDay || arrivalDays[row] > lastDay)) continue;
+                    if (checkAge && (ages[row] < minAge || ages[row] > maxAge)) continue;
+                    if (!visitor.test(row)) return;
+                }
+            }
+        }
+    }
+
+    // Fills chunk with words [from, from + length) of the rows every field allows
+    private static void intersect(List<Dimension> plan, int from, int length, long[] chunk, long[] scratch) {
+        Arrays.fill(chunk, 0, length, 0);
+        plan.get(0).orInto(chunk, from, length);
+        for (int i = 1; i < plan.size(); i++) plan.get(i).andInto(chunk, from, length, scratch);
+    }
+
+    private String groupName(ZooQuery.Group group, int code) {
+        return switch (group) {
+            case TYPE -> typeCodes.valueOf(code).getSimpleName();
+            case HABITAT -> habitatCodes.valueOf(code).getName();
+            default -> STATUSES[code].name();
+        };
+    }
+
+    private void index(int row) {
+        bitmapFor(typeRows, types[row]).set(row);
+        bitmapFor(habitatRows, habitats[row]).set(row);
+        healthRows[health[row]].set(row);
+        ageRows.computeIfAbsent(ages[row] / AGE_BAND_YEARS, band -> new RowBitmap()).set(row);
+    }
+
+    private void unindex(int row) {
+        typeRows.get(types[row]).clear(row);
+        habitatRows.get(habitats[row]).clear(row);
+        healthRows[health[row]].clear(row);
+        RowBitmap byAge = ageRows.get(ages[row] / AGE_BAND_YEARS);
+        byAge.clear(row);
+        if (byAge.cardinality() == 0) ageRows.remove(ages[row] / AGE_BAND_YEARS);
+    }
+
+    private static RowBitmap bitmapFor(List<RowBitmap> bitmaps, int code) {
+        while (bitmaps.size() <= code) bitmaps.add(new RowBitmap());
+        return bitmaps.get(code);
+    }
+
+    // -1 unless this very animal is in the table
+    private int rowOf(Animal animal) {
+        Integer row = rows.get(animal.getId());
+        return row != null && animals[row] == animal ? row : -1;
+    }
+
+    private void grow() {
+        int capacity = animals.length + (animals.length >> 1);
+        animals = Arrays.copyOf(animals, capacity);
+        ages = Arrays.copyOf(ages, capacity);
+        types = Arrays.copyOf(types, capacity);
+        profiles = Arrays.copyOf(profiles, capacity);
+        habitats = Arrays.copyOf(habitats, capacity);
+        health = Arrays.copyOf(health, capacity);
+        arrivalDays = Arrays.copyOf(arrivalDays, capacity);
+    }
+
+    private static long[] addInto(long[] total, long[] more) {
+        for (int i = 0; i < total.length; i++) total[i] += more[i];
+        return total;
+    }
+
+    // One filtered field: the rows of each value it allows, ORed together
+    private static class Dimension {
+        private final String label;
+        private final RowBitmap[] bitmaps;
+        private final int estimate;
+
+        Dimension(String label, List<RowBitmap> bitmaps) {
+            this.label = label;
+            this.bitmaps = bitmaps.toArray(new RowBitmap[0]);
+            int estimate = 0;
+            for (RowBitmap bitmap : this.bitmaps) estimate += bitmap.cardinality();
+            this.estimate = estimate;
+        }
+
+        // Words [from, from + length) of this field's rows, ORed into target[0, length)
+        void orInto(long[] target, int from, int length) {
+            for (RowBitmap bitmap : bitmaps) {
+                long[] words = bitmap.words();
+                int end = Math.min(words.length - from, length);
+                for (int i = 0; i < end; i++) target[i] |= words[from + i];
+            }
+        }
+
+        // The same words ANDed into chunk; scratch holds the OR of several values
+        void andInto(long[] chunk, int from, int length, long[] scratch) {
+            if (bitmaps.length == 1) {
+                long[] words = bitmaps[0].words();
+                int end = Math.max(0, Math.min(words.length - from, length));
+                for (int i = 0; i < end; i++) chunk[i] &= words[from + i];
+                Arrays.fill(chunk, end, length, 0);
+                return;
+            }
+            Arrays.fill(scratch, 0, length, 0);
+            orInto(scratch, from, length);
+            for (int i = 0; i < length; i++) chunk[i] &= scratch[i];
+        }
+    }
+
+    // Values are never removed, so codes stay valid for rows written earlier
+    private static class Dictionary<T> {
+        private final Map<T, Short> codes = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        short codeOf(T value) {
+            Short code = codes.get(value);
+            if (code != null) return code;
+            if (values.size() > Short.MAX_VALUE) throw new IllegalStateException("Too many distinct values");
+            code = (short) values.size();
+            codes.put(value, code);
+            values.add(value);
+            return code;
+        }
+
+        T valueOf(int code) { return values.get(code); }
+        int size() { return values.size(); }
+    }
+}
@@ -0,0 +1,65 @@
+package zoo;
+
+// What happened to each item of a Zoo.addAll or removeAll, by position in the
+// input. One byte per item, so a million-animal intake costs a megabyte.
+public class BulkResult {
+    public enum Outcome {
+        ADDED, REMOVED,
+        // An animal with the same ID was already there, or earlier in the same batch
+        DUPLICATE,
+        NOT_FOUND,
+        // A null animal
+        INVALID
+    }
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    private final byte[] outcomes;
+    private final int[] counts = new int[OUTCOMES.length];
+    private int unhoused;
+
+    BulkResult(int size) {
+        this.outcomes = new byte[size];
+    }
+
+    void set(int index, Outcome outcome) {
+        outcomes[index] = (byte) outcome.ordinal();
+        counts[outcome.ordinal()]++;
+    }
+
+    void addUnhoused(int count) {
+        unhoused += count;
+    }
+
+    public int size() { return outcomes.length; }
+    public Outcome getOutcome(int index) { return OUTCOMES[outcomes[index]]; }
+    public int getCount(Outcome outcome) { return counts[outcome.ordinal()]; }
+    // Animals added without an enclosure because none of their habitat had room
+    public int getUnhousedCount() { return unhoused; }
+
+    public boolean isAllSucceeded() {
+        return counts[Outcome.ADDED.ordinal()] + counts[Outcome.REMOVED.ordinal()] == outcomes.length;
+    }
+
+    // Positions with the given outcome, in input order
+    public int[] indexesOf(Outcome outcome) {
+        int[] indexes = new int[counts[outcome.ordinal()]];
+        int found = 0;
+        for (int i = 0; i < outcomes.length && found < indexes.length; i++) {
+            if (outcomes[i] == outcome.ordinal()) indexes[found++] = i;
+        }
+        return indexes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder("BulkResult{items=").append(outcomes.length);
+        for (Outcome outcome : OUTCOMES) {
+            if (counts[outcome.ordinal()] > 0) {
+                out.append(", ").append(outcome.name().toLowerCase()).append('=').append(counts[outcome.ordinal()]);
+            }
+        }
+        if (unhoused > 0) out.append(", unhoused=").append(unhoused);
+        return out.append('}').toString();
+    }
+}
@@ -0,0 +1,100 @@
+package zoo;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+// Buffered primitive reader matching ChannelOutput.
+public class ChannelInput {
+    private static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private boolean eof;
+
+    public ChannelInput(FileChannel channel) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(DEFAULT_BUFFER_SIZE);
+        this.buffer.flip();
+    }
+
+    // True once every byte of the channel has been consumed
+    public boolean isExhausted() throws IOException {
+        if (buffer.hasRemaining()) return false;
+        fill();
+        return !buffer.hasRemaining();
+    }
+
+    public int readByte() throws IOException {
+        ensure(1);
+        return buffer.get() & 0xFF;
+    }
+
+    public int readShort() throws IOException {
+        ensure(2);
+        return buffer.getShort();
+    }
+
+    public int readInt() throws IOException {
+        ensure(4);
+        return buffer.getInt();
+    }
+
+    public long readLong() throws IOException {
+        ensure(8);
+        return buffer.getLong();
+    }
+
+    public int readVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public String readString() throws IOException {
+        int length = readVarInt();
+        if (length < 0) throw new IOException("Malformed string length: " + length);
+        if (length > buffer.capacity()) {
+            return new String(readBytes(length), StandardCharsets.UTF_8);
+        }
+        ensure(length);
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    public byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            if (!buffer.hasRemaining()) {
+                fill();
+                if (!buffer.hasRemaining()) throw new EOFException();
+            }
+            int chunk = Math.min(length - offset, buffer.remaining());
+            buffer.get(bytes, offset, chunk);
+            offset += chunk;
+        }
+        return bytes;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        while (buffer.remaining() < bytes) {
+            if (eof) throw new EOFException();
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        buffer.compact();
+        int read = channel.read(buffer);
+        if (read < 0) eof = true;
+        buffer.flip();
+    }
+}
@@ -0,0 +1,90 @@
+package zoo;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// Console output for long listings. Lines are appended to one reused buffer
+// and handed to the stream a large chunk at a time, rather than a printf or a
+// string concatenation plus println per animal; each of those takes System.out's
+// lock and flushes. Nothing is shown until flush() or the buffer fills, so
+// flush before prompting for input.
+public class ConsoleRenderer implements Flushable {
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 1024);
+    private char[] chars = new char[FLUSH_THRESHOLD + 1024];
+
+    public ConsoleRenderer(OutputStream stream) {
+        this.out = new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+    }
+
+    public ConsoleRenderer line(String text) {
+        buffer.append(text).append('\n');
+        return afterLine();
+    }
+
+    // [Lion] ID: L001 | Name: Simba | Age: 5 | Health: HEALTHY
+    public ConsoleRenderer animal(Animal animal) {
+        buffer.append('[').append(animal.getType()).append("] ID: ").append(animal.getId())
+                .append(" | Name: ").append(animal.getName())
+                .append(" | Age: ").append(animal.getAge())
+                .append(" | Health: ").append(animal.getHealthStatus()).append('\n');
+        return afterLine();
+    }
+
+    // Simba the lion is eating meat.
+    public ConsoleRenderer feeding(Animal animal) {
+        buffer.append(animal.getName()).append(" the ");
+        String type = animal.getType();
+        for (int i = 0; i < type.length(); i++) {
+            buffer.append(Character.toLowerCase(type.charAt(i)));
+        }
+        buffer.append(" is eating ").append(FeedingScheduler.Food.forDiet(animal.getDiet()).getLabel()).append(".\n");
+        return afterLine();
+    }
+
+    public ConsoleRenderer animals(List<Animal> animals) {
+        for (Animal animal : animals) animal(animal);
+        return this;
+    }
+
+    public ConsoleRenderer feedings(List<Animal> animals) {
+        for (Animal animal : animals) feeding(animal);
+        return this;
+    }
+
+    private ConsoleRenderer afterLine() {
+        if (buffer.length() >= FLUSH_THRESHOLD) drain();
+        return this;
+    }
+
+    private void drain() {
+        int length = buffer.length();
+        if (length == 0) return;
+        if (chars.length < length) chars = new char[length];
+        buffer.getChars(0, length, chars, 0);
+        buffer.setLength(0);
+        try {
+            out.write(chars, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        drain();
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package zoo;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+// Reads delimited lines straight out of a reusable char buffer. Fields are
+// tracked as offsets into the buffer, so no String is built for a line or a
+// field unless the caller asks for one.
+public class CsvReader {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char delimiter;
+    private char[] buffer;
+    private int limit;
+    private int lineStart;
+    private int lineEnd;
+    private int nextLineStart;
+    private boolean eof;
+    private long lineNumber;
+
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount;
+
+    public CsvReader(Reader in, char delimiter) {
+        this.in = in;
+        this.delimiter = delimiter;
+        this.buffer = new char[DEFAULT_BUFFER_SIZE];
+    }
+
+    // Reads lines from text that is already in memory, without copying it
+    public CsvReader(char[] content, int length, char delimiter) {
+        this.in = null;
+        this.delimiter = delimiter;
+        this.buffer = content;
+        this.limit = length;
+        this.eof = true;
+    }
+
+    public boolean next() throws IOException {
+        int end;
+        while ((end = indexOfNewline(nextLineStart)) < 0) {
+            if (eof) {
+                if (nextLineStart >= limit) return false;
+                end = limit;
+                break;
+            }
+            fill();
+        }
+
+        lineStart = nextLineStart;
+        nextLineStart = end + 1;
+        lineEnd = (end > lineStart && buffer[end - 1] == '\r') ? end - 1 : end;
+        lineNumber++;
+        tokenize();
+        return true;
+    }
+
+    public long lineNumber() { return lineNumber; }
+    public int fieldCount() { return fieldCount; }
+    public boolean isBlankLine() { return lineEnd == lineStart; }
+
+    public String field(int index) {
+        checkIndex(index);
+        return new String(buffer, fieldStarts[index], fieldEnds[index] - fieldStarts[index]);
+    }
+
+    public boolean fieldEquals(int index, String value) {
+        checkIndex(index);
+        int start = fieldStarts[index];
+        int length = fieldEnds[index] - start;
+        if (length != value.length()) return false;
+        for (int i = 0; i < length; i++) {
+            if (buffer[start + i] != value.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    public int intField(int index) {
+        checkIndex(index);
+        int pos = fieldStarts[index];
+        int end = fieldEnds[index];
+        boolean negative = pos < end && buffer[pos] == '-';
+        if (negative) pos++;
+        if (pos == end || end - pos > 10) throw new NumberFormatException("Not a number: " + field(index));
+
+        long value = 0;
+        for (; pos < end; pos++) {
+            int digit = buffer[pos] - '0';
+            if (digit < 0 || digit > 9) throw new NumberFormatException("Not a number: " + field(index));
+            value = value * 10 + digit;
+        }
+        if (negative) value = -value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Out of range: " + field(index));
+        }
+        return (int) value;
+    }
+
+    public String line() {
+        return new String(buffer, lineStart, lineEnd - lineStart);
+    }
+
+    private void tokenize() {
+        fieldCount = 0;
+        int start = lineStart;
+        for (int i = lineStart; i <= lineEnd; i++) {
+            if (i == lineEnd || buffer[i] == delimiter) {
+                if (fieldCount == fieldStarts.length) {
+                    fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                    fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+                }
+                fieldStarts[fieldCount] = start;
+                fieldEnds[fieldCount] = i;
+                fieldCount++;
+                start = i + 1;
+            }
+        }
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from; i < limit; i++) {
+            if (buffer[i] == '\n') return i;
+        }
+        return -1;
+    }
+
+    private void fill() throws IOException {
+        // Move the unfinished line to the front, growing the buffer if it alone fills it
+        int remaining = limit - nextLineStart;
+        if (nextLineStart == 0 && remaining == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        } else if (nextLineStart > 0) {
+            System.arraycopy(buffer, nextLineStart, buffer, 0, remaining);
+        }
+        nextLineStart = 0;
+        limit = remaining;
+
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= fieldCount) {
+            throw new IndexOutOfBoundsException("Field " + index + " of " + fieldCount);
+        }
+    }
+}
@@ -1,6 +1,10 @@
+package zoo;
+
 public class Dolphin extends Animal implements Swimmer {
+    private static final AnimalProfile PROFILE = AnimalProfile.of("Tursiops truncatus", "Carnivore", "Aquatic");
+
     public Dolphin(String id, String name, int age){
-        super(id, name, age, "Tursiops truncatus", "Carnivore", "Aquatic");
+        super(id, name, age, PROFILE);
     }
 
     @Override
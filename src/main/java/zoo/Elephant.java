@@ -1,6 +1,10 @@
+package zoo;
+
 public class Elephant extends Animal implements Runner {
+    private static final AnimalProfile PROFILE = AnimalProfile.of("Loxodonta africana", "Herbivore", "Savanna");
+
     public Elephant(String id, String name, int age){
-        super(id, name, age, "Loxodonta africana", "Herbivore", "Savanna");
+        super(id, name, age, PROFILE);
     }
 
     @Override
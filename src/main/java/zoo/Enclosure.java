@@ -0,0 +1,70 @@
+package zoo;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ObjIntConsumer;
+
+public class Enclosure {
+    private final String id;
+    private final Habitat habitat;
+    private final int capacity;
+    // Keyed by animal ID so membership checks and removal don't scan
+    private final Map<String, Animal> animals;
+    // How many animals of each kind live here, for feeding rounds
+    private final Map<AnimalProfile, int[]> profileCounts = new IdentityHashMap<>(4);
+
+    public Enclosure(String id, String habitatType, int capacity) {
+        if (id == null || id.isBlank()) throw new IllegalArgumentException("Enclosure ID cannot be blank");
+        if (capacity <= 0) throw new IllegalArgumentException("Capacity must be positive");
+
+        this.id = id;
+        this.habitat = Habitat.of(habitatType);
+        this.capacity = capacity;
+        this.animals = new LinkedHashMap<>();
+    }
+
+    public String getId() { return id; }
+    public String getHabitatType() { return habitat.getName(); }
+    public Habitat getHabitat() { return habitat; }
+    public int getCapacity() { return capacity; }
+    public synchronized List<Animal> getAnimals() { return new ArrayList<>(animals.values()); }
+    public synchronized int getCurrentOccupancy() { return animals.size(); }
+    public synchronized boolean isFull() { return animals.size() >= capacity; }
+
+    // Visits each kind of animal here with how many there are
+    public synchronized void forEachProfile(ObjIntConsumer<AnimalProfile> action) {
+        profileCounts.forEach((profile, count) -> action.accept(profile, count[0]));
+    }
+
+    public synchronized boolean addAnimal(Animal animal) {
+        if (animal == null) return false;
+        if (animal.getHabitat() != habitat) return false;
+        if (isFull()) return false;
+
+        if (animals.containsKey(animal.getId())) return false;
+        animals.put(animal.getId(), animal);
+        profileCounts.computeIfAbsent(animal.getProfile(), profile -> new int[1])[0]++;
+        return true;
+    }
+
+    public synchronized boolean removeAnimal(Animal animal) {
+        if (animal == null) return false;
+        if (!animals.remove(animal.getId(), animal)) return false;
+        int[] count = profileCounts.get(animal.getProfile());
+        if (--count[0] == 0) profileCounts.remove(animal.getProfile());
+        return true;
+    }
+
+    public synchronized boolean containsAnimal(Animal animal) {
+        return animal != null && animals.get(animal.getId()) == animal;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Enclosure{id='%s', habitat='%s', occupancy=%d/%d}",
+                id, habitat, getCurrentOccupancy(), capacity);
+    }
+}
\ No newline at end of file
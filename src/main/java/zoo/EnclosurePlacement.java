@@ -0,0 +1,185 @@
+package zoo;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Index of enclosures that still have room, grouped by habitat. Each habitat
+// keeps its free enclosures in a TreeSet ordered by the placement policy, so
+// placing an animal is a lookup plus O(log E) instead of a scan over every
+// enclosure. Full enclosures drop out of the set and come back when an animal
+// leaves. Changes to one habitat are serialized on that habitat's lock.
+public class EnclosurePlacement {
+    private final Map<Habitat, HabitatSlots> habitats = new ConcurrentHashMap<>();
+    private volatile PlacementPolicy policy;
+    private long registrations;
+
+    public EnclosurePlacement(PlacementPolicy policy) {
+        this.policy = Objects.requireNonNull(policy);
+    }
+
+    public PlacementPolicy getPolicy() { return policy; }
+
+    public void setPolicy(PlacementPolicy policy) {
+        this.policy = Objects.requireNonNull(policy);
+        habitats.values().forEach(slots -> slots.reorder(policy));
+    }
+
+    public void register(Enclosure enclosure) {
+        long order;
+        synchronized (this) {
+            order = registrations++;
+        }
+        habitats.computeIfAbsent(enclosure.getHabitat(), habitat -> new HabitatSlots(policy))
+                .register(new Slot(enclosure, order));
+    }
+
+    // Puts the animal in an enclosure chosen by the policy; null if none has room
+    public Enclosure place(Animal animal) {
+        HabitatSlots slots = habitats.get(animal.getHabitat());
+        return slots == null ? null : slots.place(animal);
+    }
+
+    // Places each animal as place() would, one after another, and returns where
+    // each went (null where nothing had room). Animals are grouped by habitat
+    // so every habitat is locked and its free set walked once.
+    public Enclosure[] placeAll(List<? extends Animal> animals) {
+        Enclosure[] placed = new Enclosure[animals.size()];
+        Map<Habitat, IndexGroup> groups = new IdentityHashMap<>();
+        for (int i = 0; i < placed.length; i++) {
+            groups.computeIfAbsent(animals.get(i).getHabitat(), habitat -> new IndexGroup()).add(i);
+        }
+        groups.forEach((habitat, group) -> {
+            HabitatSlots slots = habitats.get(habitat);
+            if (slots != null) slots.placeAll(animals, group.indexes, group.size, placed);
+        });
+        return placed;
+    }
+
+    // Puts the animal in this particular enclosure if it fits; false otherwise
+    public boolean placeInto(Enclosure enclosure, Animal animal) {
+        HabitatSlots slots = habitats.get(enclosure.getHabitat());
+        return slots == null ? enclosure.addAnimal(animal) : slots.placeInto(enclosure, animal);
+    }
+
+    public void release(Enclosure enclosure, Animal animal) {
+        HabitatSlots slots = habitats.get(enclosure.getHabitat());
+        if (slots != null) {
+            slots.release(enclosure, animal);
+        } else {
+            enclosure.removeAnimal(animal);
+        }
+    }
+
+    private static Comparator<Slot> comparatorFor(PlacementPolicy policy) {
+        Comparator<Slot> byOrder = Comparator.comparingLong(slot -> slot.order);
+        return switch (policy) {
+            case FIRST_FIT -> byOrder;
+            case BEST_FIT -> Comparator.<Slot>comparingInt(slot -> slot.remaining).thenComparing(byOrder);
+            case LEAST_LOADED -> Comparator.<Slot>comparingInt(slot -> -slot.remaining).thenComparing(byOrder);
+        };
+    }
+
+    private static class IndexGroup {
+        private int[] indexes = new int[16];
+        private int size;
+
+        void add(int index) {
+            if (size == indexes.length) indexes = Arrays.copyOf(indexes, size * 2);
+            indexes[size++] = index;
+        }
+    }
+
+    // remaining is only changed while the slot is out of the free set, so the
+    // set's ordering never goes stale
+    private static class Slot {
+        private final Enclosure enclosure;
+        private final long order;
+        private int remaining;
+
+        Slot(Enclosure enclosure, long order) {
+            this.enclosure = enclosure;
+            this.order = order;
+            this.remaining = enclosure.getCapacity() - enclosure.getCurrentOccupancy();
+        }
+    }
+
+    private static class HabitatSlots {
+        private final Map<Enclosure, Slot> slots = new HashMap<>();
+        private TreeSet<Slot> free;
+
+        HabitatSlots(PlacementPolicy policy) {
+            this.free = new TreeSet<>(comparatorFor(policy));
+        }
+
+        synchronized void register(Slot slot) {
+            if (slots.putIfAbsent(slot.enclosure, slot) == null && slot.remaining > 0) {
+                free.add(slot);
+            }
+        }
+
+        synchronized Enclosure place(Animal animal) {
+            while (!free.isEmpty()) {
+                Slot slot = free.pollFirst();
+                boolean added = slot.enclosure.addAnimal(animal);
+                slot.remaining = slot.enclosure.getCapacity() - slot.enclosure.getCurrentOccupancy();
+                if (slot.remaining > 0) free.add(slot);
+                if (added) return slot.enclosure;
+                // Refused with room left means it will refuse again; don't spin on it
+                if (slot.remaining > 0) return null;
+            }
+            return null;
+        }
+
+        // Same choices as place() per animal, but a slot is only put back into
+        // the set once the policy would move on to another one
+        synchronized void placeAll(List<? extends Animal> animals, int[] indexes, int count, Enclosure[] placed) {
+            int next = 0;
+            while (next < count && !free.isEmpty()) {
+                Slot slot = free.pollFirst();
+                boolean refused = false;
+                while (next < count) {
+                    int index = indexes[next];
+                    if (!slot.enclosure.addAnimal(animals.get(index))) {
+                        refused = true;
+                        break;
+                    }
+                    placed[index] = slot.enclosure;
+                    next++;
+                    if (--slot.remaining == 0 || !free.isEmpty() && free.comparator().compare(slot, free.first()) > 0) break;
+                }
+                slot.remaining = slot.enclosure.getCapacity() - slot.enclosure.getCurrentOccupancy();
+                if (slot.remaining > 0) free.add(slot);
+                // As in place(): refused with room left, so this animal goes without
+                if (refused && slot.remaining > 0) next++;
+            }
+        }
+
+        synchronized boolean placeInto(Enclosure enclosure, Animal animal) {
+            Slot slot = slots.get(enclosure);
+            if (slot == null) return enclosure.addAnimal(animal);
+            free.remove(slot);
+            boolean added = enclosure.addAnimal(animal);
+            slot.remaining = enclosure.getCapacity() - enclosure.getCurrentOccupancy();
+            if (slot.remaining > 0) free.add(slot);
+            return added;
+        }
+
+        synchronized void release(Enclosure enclosure, Animal animal) {
+            Slot slot = slots.get(enclosure);
+            if (slot == null) {
+                enclosure.removeAnimal(animal);
+                return;
+            }
+            free.remove(slot);
+            enclosure.removeAnimal(animal);
+            slot.remaining = enclosure.getCapacity() - enclosure.getCurrentOccupancy();
+            if (slot.remaining > 0) free.add(slot);
+        }
+
+        synchronized void reorder(PlacementPolicy policy) {
+            TreeSet<Slot> reordered = new TreeSet<>(comparatorFor(policy));
+            reordered.addAll(free);
+            free = reordered;
+        }
+    }
+}
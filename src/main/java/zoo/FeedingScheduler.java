@@ -0,0 +1,295 @@
+package zoo;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Works out a feeding round: how much of each food every enclosure needs, and
+// the food order for the whole zoo. Enclosures keep a count of each kind of
+// animal they hold, so a round reads those counts (split into ranges on a
+// fork/join pool) rather than visiting every animal, and kilograms come from
+// count times ration at the end. Animals without an enclosure are fed as one
+// extra group.
+public class FeedingScheduler {
+    private static final double DEFAULT_RATION_KG = 1.0;
+    // Ranges with fewer enclosures than this are summed on the current thread
+    private static final int MIN_ENCLOSURE_SPLIT = 64;
+
+    public enum Food {
+        MEAT("meat"), PLANTS("plants"), MIXED("mixed food"), OTHER("food");
+
+        private static final Map<String, Food> BY_DIET = new ConcurrentHashMap<>();
+
+        private final String label;
+
+        Food(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() { return label; }
+
+        public static Food forDiet(String diet) {
+            return BY_DIET.computeIfAbsent(diet, key -> switch (key.toLowerCase(Locale.ROOT)) {
+                case "carnivore" -> MEAT;
+                case "herbivore" -> PLANTS;
+                case "omnivore" -> MIXED;
+                default -> OTHER;
+            });
+        }
+    }
+
+    private final Zoo zoo;
+    private final ForkJoinPool pool;
+    // Kilograms per animal per round, by species
+    private final Map<String, Double> rations = new ConcurrentHashMap<>();
+
+    public FeedingScheduler(Zoo zoo) {
+        this(zoo, ForkJoinPool.commonPool());
+    }
+
+    public FeedingScheduler(Zoo zoo, ForkJoinPool pool) {
+        this.zoo = Objects.requireNonNull(zoo);
+        this.pool = Objects.requireNonNull(pool);
+        rations.put("Panthera leo", 7.0);
+        rations.put("Tursiops truncatus", 12.0);
+        rations.put("Loxodonta africana", 150.0);
+        rations.put("Spheniscus demersus", 0.5);
+        rations.put("Macaca mulatta", 1.0);
+    }
+
+    public double getRation(String species) {
+        return rations.getOrDefault(species, DEFAULT_RATION_KG);
+    }
+
+    public void setRation(String species, double kilograms) {
+        if (species == null || species.isBlank()) throw new IllegalArgumentException("Species cannot be blank");
+        if (!(kilograms >= 0)) throw new IllegalArgumentException("Ration cannot be negative");
+        rations.put(species, kilograms);
+    }
+
+    // A round taken while animals are being added or moved reflects each
+    // enclosure as it was when that enclosure was reached
+    public Plan plan() {
+        Round round = new Round();
+        List<Enclosure> enclosures = zoo.getEnclosures();
+        Tally[] housed = new Tally[enclosures.size()];
+        int leafSize = Math.max(MIN_ENCLOSURE_SPLIT, enclosures.size() / (pool.getParallelism() * 8));
+        pool.invoke(new EnclosureRange(round, enclosures, housed, 0, housed.length, leafSize));
+
+        // Unhoused animals are everyone (from the zoo's running counts per
+        // kind) minus the housed, so no animal is visited
+        Tally unhoused = null;
+        if (zoo.getStatistics().getUnhousedAnimals() > 0) {
+            unhoused = new Tally();
+            for (Map.Entry<AnimalProfile, Long> entry : zoo.countByProfile().entrySet()) {
+                unhoused.add(round.rationFor(entry.getKey()).index, entry.getValue());
+            }
+            for (Tally tally : housed) unhoused.subtract(tally);
+        }
+
+        Ration[] rations = round.rations();
+        List<EnclosureFeeding> fed = new ArrayList<>();
+        for (int i = 0; i < housed.length; i++) {
+            EnclosureFeeding feeding = housed[i].toFeeding(enclosures.get(i).getId(), enclosures.get(i).getHabitat(), rations);
+            if (feeding.getAnimalCount() > 0) fed.add(feeding);
+        }
+        EnclosureFeeding unassigned = unhoused == null ? null : unhoused.toFeeding(null, null, rations);
+        if (unassigned != null && unassigned.getAnimalCount() == 0) unassigned = null;
+        return new Plan(fed, unassigned);
+    }
+
+    private static final class Ration {
+        final int index;
+        final int food;
+        final double kilograms;
+
+        Ration(int index, int food, double kilograms) {
+            this.index = index;
+            this.food = food;
+            this.kilograms = kilograms;
+        }
+    }
+
+    // The rations in use this round, numbered in the order profiles turn up
+    private final class Round {
+        private final Map<AnimalProfile, Ration> byProfile = new ConcurrentHashMap<>();
+        private final AtomicInteger nextIndex = new AtomicInteger();
+
+        Ration rationFor(AnimalProfile profile) {
+            Ration ration = byProfile.get(profile);
+            if (ration != null) return ration;
+            return byProfile.computeIfAbsent(profile, p -> new Ration(nextIndex.getAndIncrement(),
+                    Food.forDiet(p.getDiet()).ordinal(), getRation(p.getSpecies())));
+        }
+
+        Ration[] rations() {
+            Ration[] rations = new Ration[nextIndex.get()];
+            for (Ration ration : byProfile.values()) rations[ration.index] = ration;
+            return rations;
+        }
+    }
+
+    // One task's lookups; neighbouring enclosures usually hold the same kinds,
+    // so most skip the map entirely
+    private static final class Cursor {
+        private final Round round;
+        private AnimalProfile lastProfile;
+        private int lastIndex;
+
+        Cursor(Round round) {
+            this.round = round;
+        }
+
+        int indexOf(AnimalProfile profile) {
+            if (profile != lastProfile) {
+                lastIndex = round.rationFor(profile).index;
+                lastProfile = profile;
+            }
+            return lastIndex;
+        }
+    }
+
+    // Animals per ration index
+    private static final class Tally {
+        private long[] counts = new long[8];
+
+        void add(int index, long count) {
+            if (index >= counts.length) counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length * 2));
+            counts[index] += count;
+        }
+
+        void subtract(Tally other) {
+            for (int i = 0; i < Math.min(counts.length, other.counts.length); i++) {
+                counts[i] = Math.max(0, counts[i] - other.counts[i]);
+            }
+        }
+
+        EnclosureFeeding toFeeding(String enclosureId, Habitat habitat, Ration[] rations) {
+            double[] kilograms = new double[Food.values().length];
+            long[] animalsByFood = new long[Food.values().length];
+            long animals = 0;
+            for (int i = 0; i < Math.min(counts.length, rations.length); i++) {
+                if (counts[i] == 0) continue;
+                kilograms[rations[i].food] += counts[i] * rations[i].kilograms;
+                animalsByFood[rations[i].food] += counts[i];
+                animals += counts[i];
+            }
+            return new EnclosureFeeding(enclosureId, habitat, animals, kilograms, animalsByFood);
+        }
+    }
+
+    // Serializable only by inheritance from ForkJoinTask; never serialized
+    @SuppressWarnings("serial")
+    private static final class EnclosureRange extends RecursiveAction {
+        private final Round round;
+        private final List<Enclosure> enclosures;
+        private final Tally[] tallies;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        EnclosureRange(Round round, List<Enclosure> enclosures, Tally[] tallies, int from, int to, int leafSize) {
+            this.round = round;
+            this.enclosures = enclosures;
+            this.tallies = tallies;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leafSize) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new EnclosureRange(round, enclosures, tallies, from, mid, leafSize),
+                        new EnclosureRange(round, enclosures, tallies, mid, to, leafSize));
+                return;
+            }
+            Cursor cursor = new Cursor(round);
+            for (int i = from; i < to; i++) {
+                Tally tally = new Tally();
+                enclosures.get(i).forEachProfile((profile, count) -> tally.add(cursor.indexOf(profile), count));
+                tallies[i] = tally;
+            }
+        }
+    }
+
+    // What one enclosure (or, with a null ID, the unhoused animals) gets this round
+    public static final class EnclosureFeeding {
+        private final String enclosureId;
+        private final Habitat habitat;
+        private final long animalCount;
+        private final double[] kilograms;
+        private final long[] animalsByFood;
+
+        EnclosureFeeding(String enclosureId, Habitat habitat, long animalCount, double[] kilograms, long[] animalsByFood) {
+            this.enclosureId = enclosureId;
+            this.habitat = habitat;
+            this.animalCount = animalCount;
+            this.kilograms = kilograms;
+            this.animalsByFood = animalsByFood;
+        }
+
+        public String getEnclosureId() { return enclosureId; }
+        public Habitat getHabitat() { return habitat; }
+        public long getAnimalCount() { return animalCount; }
+        public double getKilograms(Food food) { return kilograms[food.ordinal()]; }
+        public long getAnimalCount(Food food) { return animalsByFood[food.ordinal()]; }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(enclosureId == null ? "Unassigned" : enclosureId)
+                    .append(": ").append(animalCount).append(" animals");
+            for (Food food : Food.values()) {
+                if (animalsByFood[food.ordinal()] > 0) {
+                    out.append(String.format(", %.1f kg %s", kilograms[food.ordinal()], food.getLabel()));
+                }
+            }
+            return out.toString();
+        }
+    }
+
+    public static final class Plan {
+        private final List<EnclosureFeeding> enclosures;
+        private final EnclosureFeeding unassigned;
+        private final double[] kilograms = new double[Food.values().length];
+        private final long[] animalsByFood = new long[Food.values().length];
+        private long animals;
+
+        Plan(List<EnclosureFeeding> enclosures, EnclosureFeeding unassigned) {
+            this.enclosures = Collections.unmodifiableList(enclosures);
+            this.unassigned = unassigned;
+            for (EnclosureFeeding feeding : enclosures) addToTotal(feeding);
+            if (unassigned != null) addToTotal(unassigned);
+        }
+
+        private void addToTotal(EnclosureFeeding feeding) {
+            for (int i = 0; i < kilograms.length; i++) {
+                kilograms[i] += feeding.kilograms[i];
+                animalsByFood[i] += feeding.animalsByFood[i];
+            }
+            animals += feeding.animalCount;
+        }
+
+        // Enclosures with at least one animal, in the zoo's enclosure order
+        public List<EnclosureFeeding> getEnclosures() { return enclosures; }
+        // Animals with no enclosure, or null if every animal is housed
+        public EnclosureFeeding getUnassigned() { return unassigned; }
+        public long getAnimalCount() { return animals; }
+
+        // The consolidated food order: kilograms of each food needed this round
+        public Map<Food, Double> getOrder() {
+            Map<Food, Double> order = new EnumMap<>(Food.class);
+            for (Food food : Food.values()) {
+                if (animalsByFood[food.ordinal()] > 0) order.put(food, kilograms[food.ordinal()]);
+            }
+            return order;
+        }
+
+        public long getAnimalCount(Food food) {
+            return animalsByFood[food.ordinal()];
+        }
+    }
+}
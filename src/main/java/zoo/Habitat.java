@@ -0,0 +1,36 @@
+package zoo;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One shared instance per habitat name, so enclosures and animals compare
+// habitats by identity and index them by a small dense code. Names are
+// case-sensitive, as they always were; custom habitats are added on first use
+// and kept for the life of the process.
+public final class Habitat {
+    private static final Map<String, Habitat> BY_NAME = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_CODE = new AtomicInteger();
+
+    private final String name;
+    private final int code;
+
+    private Habitat(String name, int code) {
+        this.name = name;
+        this.code = code;
+    }
+
+    public static Habitat of(String name) {
+        if (name == null || name.isBlank()) throw new IllegalArgumentException("Habitat type cannot be blank");
+        Habitat habitat = BY_NAME.get(name);
+        return habitat != null ? habitat : BY_NAME.computeIfAbsent(name, key -> new Habitat(key, NEXT_CODE.getAndIncrement()));
+    }
+
+    public String getName() { return name; }
+    public int getCode() { return code; }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,538 @@
+package zoo;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Medical history kept on disk, outside the snapshot, so opening a zoo costs
+// the same however much history it has.
+//
+// The archive is a directory of append-only segments, one per calendar month of
+// entry date: "<yyyy-MM>.seg" holds the entries, each framed as
+// [int length][int crc32c][animal id, generation, epoch day, description,
+// veterinarian, treatment], and "<yyyy-MM>.idx" lists (animal id, offset) for
+// every entry in it. "months" lists (animal id, month) the first time an animal
+// has an entry in a month. A month's index is only read when that month is
+// first touched: by an append dated in it, or by loading an animal that has
+// entries in it, which the months list (read on the first load) tells. A record
+// then loads by reading just its own entries. Date-window queries scan only the
+// months in the window and need no index.
+//
+// Removing an animal appends its id to "removed" instead of rewriting segments.
+// Each removal starts a new generation for that id, and entries from earlier
+// generations are ignored, so a reused id starts with an empty history. A
+// removal carries the journal sequence number of the same removal, so replaying
+// the journal records it only once, and discardRemovalsAfter drops removals
+// whose journal record never reached the disk.
+//
+// Public methods take a ReentrantLock rather than the monitor, so a virtual
+// thread doing the archive's file I/O and fsyncs does not pin its carrier.
+public class HealthArchive implements Closeable {
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1024 * 1024;
+    private static final String DATA_SUFFIX = ".seg";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String REMOVALS_FILE = "removed";
+    private static final String MONTHS_FILE = "months";
+
+    private final Path directory;
+    private final boolean syncEachAppend;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeMap<YearMonth, Segment> segments = new TreeMap<>();
+    private final Map<String, Integer> generations = new HashMap<>();
+    // Animal id -> journal sequence numbers of its removals (0 when not journaled)
+    private final Map<String, Locations> removalSequences = new HashMap<>();
+    private FileChannel removals;
+    private long removalsEnd;
+    private final FileChannel months;
+    private long monthsEnd = -1;
+    // Animal id -> the months (counted from January of year 0) it has entries in;
+    // null until the first load
+    private Map<String, Locations> monthsByAnimal;
+
+    // With syncEachAppend, every append and removal is on disk before it returns
+    public HealthArchive(Path directory, boolean syncEachAppend) throws IOException {
+        this.directory = directory;
+        this.syncEachAppend = syncEachAppend;
+        Files.createDirectories(directory);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(DATA_SUFFIX))
+                    .sorted()
+                    .forEach(name -> {
+                        try {
+                            addSegment(YearMonth.parse(name.substring(0, name.length() - DATA_SUFFIX.length())));
+                        } catch (RuntimeException ignored) {
+                            // Not one of ours
+                        }
+                    });
+        }
+
+        openRemovals();
+        // Archives written before the months list get one, built from every index once
+        boolean listMonths = !Files.exists(directory.resolve(MONTHS_FILE));
+        this.months = FileChannel.open(directory.resolve(MONTHS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (listMonths && !segments.isEmpty()) {
+            monthsEnd = 0;
+            for (Segment segment : segments.values()) {
+                for (String animalId : indexed(segment).keySet()) writeMonth(animalId, segment.month);
+            }
+            months.force(false);
+        }
+    }
+
+    // Writes the given records into a new archive. The archive only appears under
+    // its final name once complete, so a crash part way through leaves nothing
+    // that could be mistaken for it.
+    public static void build(Path directory, Collection<HealthRecord> records) throws IOException {
+        Path temp = directory.resolveSibling(directory.getFileName() + ".tmp");
+        deleteDirectory(temp);
+        try (HealthArchive archive = new HealthArchive(temp, false)) {
+            for (HealthRecord record : records) {
+                for (HealthRecord.MedicalEntry entry : record.getEntries()) {
+                    archive.append(record.getAnimalId(), entry);
+                }
+            }
+        }
+        Files.move(temp, directory, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public HealthRecord load(String animalId) throws IOException {
+        lock.lock();
+        try {
+            HealthRecord record = new HealthRecord(animalId);
+            Locations monthsFound = monthsByAnimal().get(animalId);
+            if (monthsFound == null) return record;
+
+            int generation = generations.getOrDefault(animalId, 0);
+            for (int m = 0; m < monthsFound.size; m++) {
+                Segment segment = segments.get(YearMonth.of(0, 1).plusMonths(monthsFound.values[m]));
+                Locations found = segment == null ? null : indexed(segment).get(animalId);
+                if (found == null) continue;
+                for (int i = 0; i < found.size; i++) {
+                    byte[] payload = readFrame(segment.data, found.values[i], segment.end);
+                    if (payload == null) throw new IOException("Health archive entry missing from " + segment.dataPath);
+                    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+                    in.readUTF();
+                    if (in.readInt() == generation) record.addEntry(readEntry(in));
+                }
+            }
+            return record;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void append(String animalId, HealthRecord.MedicalEntry entry) throws IOException {
+        lock.lock();
+        try {
+            YearMonth month = YearMonth.from(entry.getDate());
+            Segment segment = segments.get(month);
+            if (segment == null) segment = addSegment(month);
+            Map<String, Locations> locations = indexed(segment);
+            Locations inMonth = locations.get(animalId);
+            if (inMonth == null) {
+                // Listed before the entry is written, so a listed month may be empty
+                // but an entry is never missed
+                if (monthsEnd < 0) readMonths();
+                writeMonth(animalId, month);
+                if (monthsByAnimal != null) addMonth(monthsByAnimal, animalId, monthNumber(month));
+                if (syncEachAppend) months.force(false);
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(animalId);
+            out.writeInt(generations.getOrDefault(animalId, 0));
+            out.writeLong(entry.getDate().toEpochDay());
+            out.writeUTF(entry.getDescription());
+            out.writeUTF(entry.getVeterinarian());
+            out.writeUTF(entry.getTreatment());
+
+            long offset = segment.end;
+            segment.end += writeFrame(segment.data, offset, bytes.toByteArray());
+            segment.indexEnd += writeIndexEntry(segment, animalId, offset);
+            (inMonth != null ? inMonth : locations.computeIfAbsent(animalId, id -> new Locations())).add(offset);
+            // The index can be rebuilt from the entries, so only the entries need forcing
+            if (syncEachAppend) segment.data.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Starts a new generation for the id, unless this removal (by its journal
+    // sequence number; 0 if it has none) is recorded already
+    public void animalRemoved(String animalId, long sequence) throws IOException {
+        lock.lock();
+        try {
+            Locations recorded = removalSequences.get(animalId);
+            if (sequence > 0 && recorded != null && recorded.contains(sequence)) return;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(24);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(animalId);
+            out.writeLong(sequence);
+            removalsEnd += writeFrame(removals, removalsEnd, bytes.toByteArray());
+            recordRemoval(animalId, sequence);
+            if (syncEachAppend) removals.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Forgets removals recorded under a journal sequence number above the last
+    // one that reached the journal: the animal is still there after recovery,
+    // and so should its history be
+    public void discardRemovalsAfter(long sequence) throws IOException {
+        lock.lock();
+        try {
+            List<byte[]> kept = new ArrayList<>();
+            boolean discarded = false;
+            byte[] payload;
+            for (long position = 0; (payload = readFrame(removals, position, removalsEnd)) != null; position += HEADER_SIZE + payload.length) {
+                if (removalSequence(payload) > sequence) discarded = true;
+                else kept.add(payload);
+            }
+            if (!discarded) return;
+
+            Path temp = directory.resolve(REMOVALS_FILE + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                long position = 0;
+                for (byte[] frame : kept) position += writeFrame(out, position, frame);
+                out.force(false);
+            }
+            removals.close();
+            Files.move(temp, directory.resolve(REMOVALS_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            generations.clear();
+            removalSequences.clear();
+            removalsEnd = 0;
+            openRemovals();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Entries for every animal dated from..to, both inclusive, oldest first
+    public List<HealthTimeline.AnimalEntry> between(LocalDate from, LocalDate to) throws IOException {
+        lock.lock();
+        try {
+            List<HealthTimeline.AnimalEntry> result = new ArrayList<>();
+            if (from.isAfter(to)) return result;
+
+            for (Segment segment : segments.subMap(YearMonth.from(from), true, YearMonth.from(to), true).values()) {
+                open(segment);
+                long limit = segment.locations == null ? segment.data.size() : segment.end;
+                segment.data.position(0);
+                ChannelInput in = new ChannelInput(segment.data);
+                for (long position = 0; position + HEADER_SIZE <= limit; ) {
+                    int length = in.readInt();
+                    int checksum = in.readInt();
+                    if (length <= 0 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length > limit) break;
+                    byte[] payload = in.readBytes(length);
+                    if (checksum(payload) != checksum) break;
+                    position += HEADER_SIZE + length;
+
+                    DataInputStream entry = new DataInputStream(new ByteArrayInputStream(payload));
+                    String animalId = entry.readUTF();
+                    if (entry.readInt() != generations.getOrDefault(animalId, 0)) continue;
+                    HealthRecord.MedicalEntry medicalEntry = readEntry(entry);
+                    if (!medicalEntry.getDate().isBefore(from) && !medicalEntry.getDate().isAfter(to)) {
+                        result.add(new HealthTimeline.AnimalEntry(animalId, medicalEntry));
+                    }
+                }
+            }
+            // A month's segment is in the order entries were added, not by date
+            result.sort(Comparator.comparing(entry -> entry.getEntry().getDate()));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            for (Segment segment : segments.values()) {
+                if (segment.data == null) continue;
+                segment.data.force(false);
+                segment.index.force(false);
+            }
+            removals.force(false);
+            months.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            sync();
+            for (Segment segment : segments.values()) {
+                if (segment.data == null) continue;
+                segment.data.close();
+                segment.index.close();
+            }
+            removals.close();
+            months.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Segment addSegment(YearMonth month) {
+        Segment segment = new Segment(month, directory.resolve(month + DATA_SUFFIX), directory.resolve(month + INDEX_SUFFIX));
+        segments.put(month, segment);
+        return segment;
+    }
+
+    private void openRemovals() throws IOException {
+        removals = FileChannel.open(directory.resolve(REMOVALS_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = removals.size();
+        byte[] payload;
+        while ((payload = readFrame(removals, removalsEnd, size)) != null) {
+            recordRemoval(new DataInputStream(new ByteArrayInputStream(payload)).readUTF(), removalSequence(payload));
+            removalsEnd += HEADER_SIZE + payload.length;
+        }
+        // Anything after the last intact removal is the tail of a write that never finished
+        removals.truncate(removalsEnd);
+    }
+
+    private void recordRemoval(String animalId, long sequence) {
+        generations.merge(animalId, 1, Integer::sum);
+        removalSequences.computeIfAbsent(animalId, id -> new Locations()).add(sequence);
+    }
+
+    // Removals written before they carried one have no sequence number
+    private static long removalSequence(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        in.readUTF();
+        return in.available() >= Long.BYTES ? in.readLong() : 0;
+    }
+
+    private Map<String, Locations> monthsByAnimal() throws IOException {
+        if (monthsByAnimal == null) readMonths();
+        return monthsByAnimal;
+    }
+
+    // Reads the months list, cutting off a torn tail so appends land after the
+    // last intact line
+    private void readMonths() throws IOException {
+        Map<String, Locations> byAnimal = new HashMap<>();
+        long size = months.size();
+        long end = 0;
+        byte[] payload;
+        while ((payload = readFrame(months, end, size)) != null) {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            addMonth(byAnimal, in.readUTF(), in.readLong());
+            end += HEADER_SIZE + payload.length;
+        }
+        months.truncate(end);
+        monthsEnd = end;
+        monthsByAnimal = byAnimal;
+    }
+
+    private void writeMonth(String animalId, YearMonth month) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(24);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(animalId);
+        out.writeLong(monthNumber(month));
+        monthsEnd += writeFrame(months, monthsEnd, bytes.toByteArray());
+    }
+
+    private static long monthNumber(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+
+    private static void addMonth(Map<String, Locations> byAnimal, String animalId, long month) {
+        Locations found = byAnimal.computeIfAbsent(animalId, id -> new Locations());
+        if (!found.contains(month)) found.add(month);
+    }
+
+    private void open(Segment segment) throws IOException {
+        if (segment.data != null) return;
+        segment.data = FileChannel.open(segment.dataPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.index = FileChannel.open(segment.indexPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // The segment's animal id -> entry offsets, read on first use
+    private Map<String, Locations> indexed(Segment segment) throws IOException {
+        if (segment.locations == null) {
+            open(segment);
+            index(segment);
+        }
+        return segment.locations;
+    }
+
+    // Loads a segment's index and brings the two files back in step after a crash:
+    // index entries whose data never made it are dropped, entries written without
+    // their index line are indexed, and torn tails are cut off both files.
+    private void index(Segment segment) throws IOException {
+        long dataSize = segment.data.size();
+        ByteBuffer raw = ByteBuffer.allocate((int) segment.index.size());
+        readFully(segment.index, raw, 0);
+        byte[] indexBytes = raw.array();
+
+        List<String> ids = new ArrayList<>();
+        List<Long> offsets = new ArrayList<>();
+        List<Long> indexEnds = new ArrayList<>();
+        ByteArrayInputStream stream = new ByteArrayInputStream(indexBytes);
+        DataInputStream in = new DataInputStream(stream);
+        long previous = -1;
+        while (true) {
+            try {
+                String id = in.readUTF();
+                long offset = in.readLong();
+                // Offsets only grow; anything else is an unfinished write
+                if (id.isEmpty() || offset <= previous || offset >= dataSize) break;
+                ids.add(id);
+                offsets.add(offset);
+                indexEnds.add((long) (indexBytes.length - stream.available()));
+                previous = offset;
+            } catch (EOFException | UTFDataFormatException e) {
+                break;
+            }
+        }
+
+        long end = 0;
+        while (!offsets.isEmpty()) {
+            int last = offsets.size() - 1;
+            byte[] payload = readFrame(segment.data, offsets.get(last), dataSize);
+            if (payload != null) {
+                end = offsets.get(last) + HEADER_SIZE + payload.length;
+                break;
+            }
+            ids.remove(last);
+            offsets.remove(last);
+            indexEnds.remove(last);
+        }
+        segment.indexEnd = indexEnds.isEmpty() ? 0 : indexEnds.get(indexEnds.size() - 1);
+        segment.index.truncate(segment.indexEnd);
+        Map<String, Locations> locations = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            locations.computeIfAbsent(ids.get(i), id -> new Locations()).add(offsets.get(i));
+        }
+
+        byte[] payload;
+        while ((payload = readFrame(segment.data, end, dataSize)) != null) {
+            String animalId = new DataInputStream(new ByteArrayInputStream(payload)).readUTF();
+            segment.indexEnd += writeIndexEntry(segment, animalId, end);
+            locations.computeIfAbsent(animalId, id -> new Locations()).add(end);
+            end += HEADER_SIZE + payload.length;
+        }
+        segment.end = end;
+        segment.data.truncate(end);
+        segment.locations = locations;
+    }
+
+    private static int writeIndexEntry(Segment segment, String animalId, long offset) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(24);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(animalId);
+        out.writeLong(offset);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+        long position = segment.indexEnd;
+        while (buffer.hasRemaining()) position += segment.index.write(buffer, position);
+        return bytes.size();
+    }
+
+    private static int writeFrame(FileChannel channel, long position, byte[] payload) throws IOException {
+        if (payload.length > MAX_RECORD_SIZE) throw new IllegalArgumentException("Health entry is too large");
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        buffer.putInt(payload.length).putInt(checksum(payload)).put(payload).flip();
+        while (buffer.hasRemaining()) position += channel.write(buffer, position);
+        return HEADER_SIZE + payload.length;
+    }
+
+    // The payload of the intact frame at position, or null if there is none
+    private static byte[] readFrame(FileChannel channel, long position, long limit) throws IOException {
+        if (position + HEADER_SIZE > limit) return null;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        if (!readFully(channel, header, position)) return null;
+        int length = header.getInt(0);
+        int checksum = header.getInt(4);
+        if (length <= 0 || length > MAX_RECORD_SIZE || position + HEADER_SIZE + length > limit) return null;
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        if (!readFully(channel, payload, position + HEADER_SIZE)) return null;
+        return checksum(payload.array()) == checksum ? payload.array() : null;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) return false;
+            position += read;
+        }
+        return true;
+    }
+
+    private static HealthRecord.MedicalEntry readEntry(DataInputStream in) throws IOException {
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        return new HealthRecord.MedicalEntry(date, in.readUTF(), in.readUTF(), in.readUTF());
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void deleteDirectory(Path path) throws IOException {
+        if (!Files.exists(path)) return;
+        try (Stream<Path> files = Files.list(path)) {
+            for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+        }
+        Files.delete(path);
+    }
+
+    private static class Segment {
+        private final YearMonth month;
+        private final Path dataPath;
+        private final Path indexPath;
+        private FileChannel data;
+        private FileChannel index;
+        // Animal id -> offsets of its entries; null until the month is first touched
+        private Map<String, Locations> locations;
+        // End of the last intact entry and index line; valid once indexed
+        private long end;
+        private long indexEnd;
+
+        Segment(YearMonth month, Path dataPath, Path indexPath) {
+            this.month = month;
+            this.dataPath = dataPath;
+            this.indexPath = indexPath;
+        }
+    }
+
+    // Growable list of longs (offsets, months or sequence numbers), to avoid
+    // boxing one Long per entry
+    private static class Locations {
+        private long[] values = new long[2];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        boolean contains(long value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) return true;
+            }
+            return false;
+        }
+    }
+}
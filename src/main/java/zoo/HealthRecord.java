@@ -0,0 +1,92 @@
+package zoo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class HealthRecord {
+    private final String animalId;
+    // Entries by date; entries on the same day keep the order they were added in
+    private final NavigableMap<LocalDate, List<MedicalEntry>> entries;
+    private int entryCount;
+
+    public static class MedicalEntry {
+        private final LocalDate date;
+        private final String description;
+        private final String veterinarian;
+        private final String treatment;
+
+        public MedicalEntry(LocalDate date, String description, String veterinarian, String treatment) {
+            this.date = date;
+            this.description = description;
+            this.veterinarian = veterinarian;
+            this.treatment = treatment;
+        }
+
+        public LocalDate getDate() { return date; }
+        public String getDescription() { return description; }
+        public String getVeterinarian() { return veterinarian; }
+        public String getTreatment() { return treatment; }
+
+        @Override
+        public String toString() {
+            return String.format("[%s] %s - Dr. %s: %s", date, description, veterinarian, treatment);
+        }
+    }
+
+    public HealthRecord(String animalId) {
+        if (animalId == null || animalId.isBlank()) throw new IllegalArgumentException("Animal ID cannot be blank");
+        this.animalId = animalId;
+        this.entries = new TreeMap<>();
+    }
+
+    public String getAnimalId() { return animalId; }
+    public synchronized int getEntryCount() { return entryCount; }
+
+    // Oldest first
+    public synchronized List<MedicalEntry> getEntries() { return collect(entries); }
+
+    // Entries are added through Zoo.addHealthEntry, which also archives and
+    // journals them; these are for Zoo and the loaders
+    synchronized MedicalEntry addEntry(String description, String veterinarian, String treatment) {
+        MedicalEntry entry = new MedicalEntry(LocalDate.now(), description, veterinarian, treatment);
+        addEntry(entry);
+        return entry;
+    }
+
+    synchronized void addEntry(MedicalEntry entry) {
+        if (entry == null) return;
+        entries.computeIfAbsent(entry.getDate(), date -> new ArrayList<>(1)).add(entry);
+        entryCount++;
+    }
+
+    public synchronized List<MedicalEntry> getRecentEntries(int days) {
+        LocalDate cutoff = LocalDate.now().minusDays(days);
+        return collect(entries.tailMap(cutoff, false));
+    }
+
+    // Entries dated from..to, both inclusive
+    public synchronized List<MedicalEntry> getEntriesBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) return new ArrayList<>();
+        return collect(entries.subMap(from, true, to, true));
+    }
+
+    // Days that have at least one entry, oldest first
+    public synchronized List<LocalDate> getEntryDates() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    private static List<MedicalEntry> collect(Map<LocalDate, List<MedicalEntry>> byDate) {
+        List<MedicalEntry> result = new ArrayList<>();
+        byDate.values().forEach(result::addAll);
+        return result;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("HealthRecord{animalId='%s', entries=%d}", animalId, entryCount);
+    }
+}
\ No newline at end of file
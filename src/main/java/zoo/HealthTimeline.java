@@ -0,0 +1,65 @@
+package zoo;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Every medical entry in the zoo, indexed by date, so a date-window query only
+// visits the days inside the window instead of every animal's health record.
+// Zoo updates it under the animal's lock stripe, so the per-animal lists only
+// ever have one writer at a time.
+public class HealthTimeline {
+    // Date -> animal ID -> that animal's entries on that day
+    private final ConcurrentSkipListMap<LocalDate, Map<String, List<HealthRecord.MedicalEntry>>> byDate =
+            new ConcurrentSkipListMap<>();
+
+    public void add(String animalId, HealthRecord.MedicalEntry entry) {
+        byDate.computeIfAbsent(entry.getDate(), date -> new ConcurrentHashMap<>())
+                .computeIfAbsent(animalId, id -> new CopyOnWriteArrayList<>())
+                .add(entry);
+    }
+
+    // Drops everything recorded for the animal; the record says which days to visit
+    public void remove(HealthRecord record) {
+        for (LocalDate date : record.getEntryDates()) {
+            byDate.computeIfPresent(date, (key, animals) -> {
+                animals.remove(record.getAnimalId());
+                return animals.isEmpty() ? null : animals;
+            });
+        }
+    }
+
+    public void clear() {
+        byDate.clear();
+    }
+
+    // Entries dated from..to, both inclusive, oldest first
+    public List<AnimalEntry> between(LocalDate from, LocalDate to) {
+        List<AnimalEntry> result = new ArrayList<>();
+        if (from.isAfter(to)) return result;
+        byDate.subMap(from, true, to, true).values().forEach(animals ->
+                animals.forEach((animalId, entries) ->
+                        entries.forEach(entry -> result.add(new AnimalEntry(animalId, entry)))));
+        return result;
+    }
+
+    public static class AnimalEntry {
+        private final String animalId;
+        private final HealthRecord.MedicalEntry entry;
+
+        AnimalEntry(String animalId, HealthRecord.MedicalEntry entry) {
+            this.animalId = animalId;
+            this.entry = entry;
+        }
+
+        public String getAnimalId() { return animalId; }
+        public HealthRecord.MedicalEntry getEntry() { return entry; }
+
+        @Override
+        public String toString() {
+            return animalId + " " + entry;
+        }
+    }
+}
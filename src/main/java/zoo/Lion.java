@@ -1,6 +1,10 @@
+package zoo;
+
 public class Lion extends Animal implements Runner {
+    private static final AnimalProfile PROFILE = AnimalProfile.of("Panthera leo", "Carnivore", "Savanna");
+
     public Lion(String id, String name, int age){
-        super(id, name, age, "Panthera leo", "Carnivore", "Savanna");
+        super(id, name, age, PROFILE);
     }
 
     @Override
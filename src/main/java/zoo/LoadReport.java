@@ -0,0 +1,51 @@
+package zoo;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LoadReport {
+    private static final int MAX_REPORTED_LINES = 50;
+
+    private int animalsLoaded;
+    private int enclosuresLoaded;
+    private int duplicatesSkipped;
+    private int malformedCount;
+    private int journalRecordsSkipped;
+    private final List<String> malformedLines = new ArrayList<>();
+
+    void enclosureLoaded() { enclosuresLoaded++; }
+
+    void animalsAdded(BulkResult result) {
+        animalsLoaded += result.getCount(BulkResult.Outcome.ADDED);
+        duplicatesSkipped += result.getCount(BulkResult.Outcome.DUPLICATE);
+    }
+
+    void malformed(long lineNumber, String reason) {
+        malformedCount++;
+        if (malformedLines.size() < MAX_REPORTED_LINES) {
+            malformedLines.add("line " + lineNumber + ": " + reason);
+        }
+    }
+
+    // An intact journal record that could not be applied; counted as malformed too
+    void journalRecordSkipped(long sequence, String where, String reason) {
+        journalRecordsSkipped++;
+        malformedCount++;
+        if (malformedLines.size() < MAX_REPORTED_LINES) {
+            malformedLines.add("journal record " + sequence + " in " + where + ": " + reason);
+        }
+    }
+
+    public int getAnimalsLoaded() { return animalsLoaded; }
+    public int getEnclosuresLoaded() { return enclosuresLoaded; }
+    public int getDuplicatesSkipped() { return duplicatesSkipped; }
+    public int getMalformedCount() { return malformedCount; }
+    public int getJournalRecordsSkipped() { return journalRecordsSkipped; }
+    public List<String> getMalformedLines() { return new ArrayList<>(malformedLines); }
+
+    @Override
+    public String toString() {
+        return String.format("LoadReport{animals=%d, enclosures=%d, duplicates=%d, malformed=%d, journalSkipped=%d}",
+                animalsLoaded, enclosuresLoaded, duplicatesSkipped, malformedCount, journalRecordsSkipped);
+    }
+}
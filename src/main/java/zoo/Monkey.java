@@ -1,6 +1,10 @@
+package zoo;
+
 public class Monkey extends Animal implements Runner {
+    private static final AnimalProfile PROFILE = AnimalProfile.of("Macaca mulatta", "Omnivore", "Tropical Forest");
+
     public Monkey(String id, String name, int age){
-        super(id, name, age, "Macaca mulatta", "Omnivore", "Tropical Forest");
+        super(id, name, age, PROFILE);
     }
 
     @Override
@@ -0,0 +1,73 @@
+package zoo;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Buckets are concurrent sets, so lookups never lock. Buckets are only created
+// and dropped inside byName.compute for their key, which keeps both maps in step.
+public class NameIndex {
+    private final ConcurrentHashMap<String, Set<Animal>> byName = new ConcurrentHashMap<>();
+    // Same buckets as byName, kept in key order so prefix searches are a range scan
+    private final ConcurrentNavigableMap<String, Set<Animal>> sortedNames = new ConcurrentSkipListMap<>();
+
+    public void add(Animal animal) {
+        byName.compute(fold(animal.getName()), (key, bucket) -> {
+            if (bucket == null) {
+                bucket = ConcurrentHashMap.newKeySet();
+                sortedNames.put(key, bucket);
+            }
+            bucket.add(animal);
+            return bucket;
+        });
+    }
+
+    // As add() for each, with one bucket update per distinct name
+    public void addAll(Collection<? extends Animal> animals) {
+        Map<String, List<Animal>> byKey = new HashMap<>();
+        for (Animal animal : animals) {
+            byKey.computeIfAbsent(fold(animal.getName()), key -> new ArrayList<>(4)).add(animal);
+        }
+        byKey.forEach((key, group) -> byName.compute(key, (k, bucket) -> {
+            if (bucket == null) {
+                bucket = ConcurrentHashMap.newKeySet(group.size());
+                sortedNames.put(k, bucket);
+            }
+            bucket.addAll(group);
+            return bucket;
+        }));
+    }
+
+    public void remove(Animal animal) {
+        byName.computeIfPresent(fold(animal.getName()), (key, bucket) -> {
+            bucket.remove(animal);
+            if (bucket.isEmpty()) {
+                sortedNames.remove(key);
+                return null;
+            }
+            return bucket;
+        });
+    }
+
+    public List<Animal> find(String name) {
+        if (name == null) return new ArrayList<>();
+        Set<Animal> bucket = byName.get(fold(name));
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+    }
+
+    public List<Animal> findByPrefix(String prefix) {
+        if (prefix == null) return new ArrayList<>();
+        String key = fold(prefix);
+        List<Animal> result = new ArrayList<>();
+        // Every key starting with the prefix sorts between it and prefix + MAX_VALUE
+        sortedNames.subMap(key, true, key + Character.MAX_VALUE, true)
+                .values()
+                .forEach(result::addAll);
+        return result;
+    }
+
+    private static String fold(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
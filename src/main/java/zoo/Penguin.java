@@ -1,6 +1,10 @@
+package zoo;
+
 public class Penguin extends Animal implements Swimmer {
+    private static final AnimalProfile PROFILE = AnimalProfile.of("Spheniscus demersus", "Carnivore", "Aquatic");
+
     public Penguin(String id, String name, int age){
-        super(id, name, age, "Spheniscus demersus", "Carnivore", "Aquatic");
+        super(id, name, age, PROFILE);
     }
 
     @Override
@@ -0,0 +1,11 @@
+package zoo;
+
+// How Zoo picks among enclosures of the right habitat that still have room.
+public enum PlacementPolicy {
+    // The enclosure registered first
+    FIRST_FIT,
+    // The enclosure with the least room left, keeping the others free for groups
+    BEST_FIT,
+    // The enclosure with the most room left, spreading animals out
+    LEAST_LOADED
+}
@@ -0,0 +1,42 @@
+package zoo;
+
+import java.util.Arrays;
+
+// Set of AnimalTable rows, one bit per row, that keeps its own count so the
+// query planner can rank indexes without scanning them. Guarded by the
+// table's lock.
+final class RowBitmap {
+    private long[] words = new long[0];
+    private int cardinality;
+
+    void set(int row) {
+        int index = row >>> 6;
+        if (index >= words.length) words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+        long bit = 1L << row;
+        if ((words[index] & bit) == 0) {
+            words[index] |= bit;
+            cardinality++;
+        }
+    }
+
+    void clear(int row) {
+        int index = row >>> 6;
+        if (index >= words.length) return;
+        long bit = 1L << row;
+        if ((words[index] & bit) != 0) {
+            words[index] &= ~bit;
+            cardinality--;
+        }
+    }
+
+    boolean get(int row) {
+        int index = row >>> 6;
+        return index < words.length && (words[index] & 1L << row) != 0;
+    }
+
+    int cardinality() { return cardinality; }
+
+    // Word i holds rows 64 * i to 64 * i + 63, lowest row in the lowest bit. May
+    // be shorter than the table, and is the live array: read it under the lock.
+    long[] words() { return words; }
+}
@@ -0,0 +1,72 @@
+package zoo;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Animals grouped by type, with the types kept in sorted order, plus a cached
+// immutable list of all of them in that order. Adds and removes only touch a
+// bucket and bump the version; the list is rebuilt, without sorting, the next
+// time someone asks for it after a change.
+public class SortedAnimalView {
+    private final ConcurrentSkipListMap<String, Map<String, Animal>> byType = new ConcurrentSkipListMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private volatile CachedList cached;
+
+    public void add(String normalizedId, Animal animal) {
+        byType.computeIfAbsent(animal.getType(), type -> new ConcurrentHashMap<>()).put(normalizedId, animal);
+        version.incrementAndGet();
+    }
+
+    // As add() for each pair, with one version bump for the lot
+    public void addAll(List<String> normalizedIds, List<? extends Animal> animals) {
+        String type = null;
+        Map<String, Animal> bucket = null;
+        for (int i = 0; i < animals.size(); i++) {
+            Animal animal = animals.get(i);
+            if (!animal.getType().equals(type)) {
+                type = animal.getType();
+                bucket = byType.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+            }
+            bucket.put(normalizedIds.get(i), animal);
+        }
+        version.incrementAndGet();
+    }
+
+    public void remove(String normalizedId, Animal animal) {
+        Map<String, Animal> bucket = byType.get(animal.getType());
+        if (bucket != null) bucket.remove(normalizedId, animal);
+        version.incrementAndGet();
+    }
+
+    public List<Animal> list() {
+        long current = version.get();
+        CachedList snapshot = cached;
+        if (snapshot != null && snapshot.version == current) return snapshot.animals;
+
+        List<Animal> rebuilt = new ArrayList<>();
+        byType.values().forEach(bucket -> rebuilt.addAll(bucket.values()));
+        List<Animal> animals = Collections.unmodifiableList(rebuilt);
+        // Only cache it if nothing changed while it was being built
+        if (version.get() == current) cached = new CachedList(current, animals);
+        return animals;
+    }
+
+    public List<Animal> page(int offset, int limit) {
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("Offset and limit must not be negative");
+        List<Animal> animals = list();
+        if (offset >= animals.size()) return List.of();
+        return animals.subList(offset, Math.min(animals.size(), offset + limit));
+    }
+
+    private static class CachedList {
+        private final long version;
+        private final List<Animal> animals;
+
+        CachedList(long version, List<Animal> animals) {
+            this.version = version;
+            this.animals = animals;
+        }
+    }
+}
@@ -1,3 +1,5 @@
+package zoo;
+
 public interface Swimmer {
 
     void swim();
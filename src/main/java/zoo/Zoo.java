@@ -0,0 +1,600 @@
+package zoo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Safe to share between threads. Reads are lock-free; every mutation holds the
+// lock stripe for the animal (or enclosure) ID it touches, so changes to one
+// animal are applied and reported to listeners in order while changes to
+// different animals run in parallel. Listeners hear changeReleased() once the
+// stripe is let go, for work that should not hold up other mutations.
+public class Zoo {
+    private static final int LOCK_STRIPES = 64;
+
+    // Keyed by animal ID; lookups take the ID as given and normalize as they hash
+    private final AnimalIdMap<Animal> animals = new AnimalIdMap<>();
+    private final Map<String, Enclosure> enclosures = new ConcurrentHashMap<>();
+    private final AnimalIdMap<HealthRecord> healthRecords = new AnimalIdMap<>();
+    // Animal ID -> the enclosure it lives in
+    private final AnimalIdMap<Enclosure> animalEnclosures = new AnimalIdMap<>();
+    private final NameIndex nameIndex = new NameIndex();
+    private final SortedAnimalView sortedView = new SortedAnimalView();
+    private final HealthTimeline healthTimeline = new HealthTimeline();
+    // When set, medical history lives here and health records load on first use
+    private volatile HealthArchive healthArchive;
+    // Columnar copy of the animals for analytics, kept only once enabled
+    private volatile AnimalTable animalTable;
+    private final ZooStatistics statistics = new ZooStatistics();
+    private final EnclosurePlacement placement = new EnclosurePlacement(PlacementPolicy.FIRST_FIT);
+    private final AnimalIdGenerator idGenerator = new AnimalIdGenerator();
+    private final List<ZooListener> listeners = new CopyOnWriteArrayList<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+    public Zoo() {
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new ReentrantLock();
+
+        // Initialize default enclosures
+        addEnclosure(new Enclosure("SAVANNA_1", "Savanna", 5));
+        addEnclosure(new Enclosure("AQUATIC_1", "Aquatic", 10));
+        addEnclosure(new Enclosure("TROPICAL_1", "Tropical Forest", 8));
+    }
+
+    public boolean addAnimal(Animal animal) {
+        return addAnimal(animal, null);
+    }
+
+    // Puts the animal in the given enclosure when it exists and has room (e.g. when
+    // restoring saved data), otherwise lets the placement policy choose
+    public boolean addAnimal(Animal animal, String enclosureId) {
+        if (animal == null) return false;
+
+        long start = ZooMetrics.start();
+        String normalizedId = normalizeId(animal.getId());
+        try {
+            return mutate(normalizedId, () -> addLocked(animal, normalizedId, enclosureId));
+        } finally {
+            ZooMetrics.ADD_ANIMAL.record(start);
+        }
+    }
+
+    // Caller holds the ID's stripe lock
+    private boolean addLocked(Animal animal, String normalizedId, String enclosureId) {
+        if (animals.putIfAbsent(normalizedId, animal) != null) {
+            ZooMetrics.ADDS_REJECTED.increment();
+            return false;
+        }
+
+        idGenerator.advanceTo(AnimalIdGenerator.sequenceOf(normalizedId) + 1);
+        nameIndex.add(animal);
+        sortedView.add(normalizedId, animal);
+        AnimalTable table = animalTable;
+        if (table != null) table.add(animal);
+        if (healthArchive == null) healthRecords.put(normalizedId, new HealthRecord(normalizedId));
+
+        // Try to assign to appropriate enclosure
+        Enclosure enclosure = assignToEnclosure(animal, enclosureId);
+        if (enclosure != null) animalEnclosures.put(normalizedId, enclosure);
+        else ZooMetrics.ANIMALS_UNHOUSED.increment();
+        statistics.animalAdded(animal, enclosure);
+
+        listeners.forEach(listener -> listener.animalAdded(animal, enclosure));
+        return true;
+    }
+
+    public BulkResult addAll(Collection<? extends Animal> animals) {
+        return addAll(animals instanceof List<? extends Animal> list ? list : new ArrayList<>(animals), null);
+    }
+
+    public BulkResult addAll(Stream<? extends Animal> animals) {
+        return addAll(animals.collect(Collectors.toList()), null);
+    }
+
+    // Adds a batch in one pass: the maps are sized once for the whole batch,
+    // names are indexed once per distinct name, and enclosures are filled habitat
+    // by habitat. Other mutations wait until the batch is done. Of animals with
+    // the same ID, the first in input order wins. enclosureIds, if given, holds
+    // the enclosure asked for by the animal at the same index (or null). Animals
+    // that ask are placed first, in input order, and the rest are then placed by
+    // the policy, so placement can differ from adding the same animals one at a
+    // time. Listeners hear about each animal in input order. Animals only become
+    // visible once every index has them; if filling an index fails, the batch is
+    // undone and the failure thrown.
+    public BulkResult addAll(List<? extends Animal> animals, List<String> enclosureIds) {
+        if (enclosureIds != null && enclosureIds.size() != animals.size()) {
+            throw new IllegalArgumentException("Expected one enclosure ID per animal");
+        }
+        long start = ZooMetrics.start();
+        String[] normalizedIds = new String[animals.size()];
+        for (int i = 0; i < normalizedIds.length; i++) {
+            Animal animal = animals.get(i);
+            if (animal != null) normalizedIds[i] = normalizeId(animal.getId());
+        }
+        try {
+            return mutateAll(() -> addAllLocked(animals, enclosureIds, normalizedIds));
+        } finally {
+            ZooMetrics.ADD_ALL.record(start);
+        }
+    }
+
+    private BulkResult addAllLocked(List<? extends Animal> animals, List<String> enclosureIds, String[] normalizedIds) {
+        BulkResult result = new BulkResult(animals.size());
+        int expected = this.animals.size() + animals.size();
+        this.animals.ensureCapacity(expected);
+        if (healthArchive == null) healthRecords.ensureCapacity(expected);
+        animalEnclosures.ensureCapacity(expected);
+        // Claimed in input order, so the first of each ID wins as it would one at a time
+        List<Animal> added = new ArrayList<>(animals.size());
+        List<String> addedIds = new ArrayList<>(animals.size());
+        List<String> requested = enclosureIds == null ? null : new ArrayList<>(animals.size());
+        int[] addedIndexes = new int[animals.size()];
+        AnimalIdMap<Animal> claimed = new AnimalIdMap<>();
+        claimed.ensureCapacity(animals.size());
+        for (int i = 0; i < normalizedIds.length; i++) {
+            Animal animal = animals.get(i);
+            if (animal == null) {
+                result.set(i, BulkResult.Outcome.INVALID);
+            } else if (this.animals.containsKey(normalizedIds[i]) || claimed.putIfAbsent(normalizedIds[i], animal) != null) {
+                result.set(i, BulkResult.Outcome.DUPLICATE);
+            } else {
+                addedIndexes[added.size()] = i;
+                added.add(animal);
+                addedIds.add(normalizedIds[i]);
+                if (requested != null) requested.add(enclosureIds.get(i));
+            }
+        }
+        ZooMetrics.ADDS_REJECTED.add(result.getCount(BulkResult.Outcome.DUPLICATE));
+        if (added.isEmpty()) return result;
+
+        // Every stripe is held, so the indexes can be filled side by side
+        Enclosure[] placed = new Enclosure[added.size()];
+        AnimalTable table = animalTable;
+        HealthArchive archive = healthArchive;
+        try {
+            fillIndexes(added, addedIds, requested, placed, table, archive);
+        } catch (RuntimeException | Error e) {
+            undoIndexes(added, addedIds, placed, table);
+            throw e;
+        }
+        for (int i = 0; i < added.size(); i++) this.animals.put(addedIds.get(i), added.get(i));
+        long maxSequence = -1;
+        for (String normalizedId : addedIds) maxSequence = Math.max(maxSequence, AnimalIdGenerator.sequenceOf(normalizedId));
+        idGenerator.advanceTo(maxSequence + 1);
+
+        int unhoused = 0;
+        for (Enclosure enclosure : placed) {
+            if (enclosure == null) unhoused++;
+        }
+        statistics.animalsAdded(added, placed.length - unhoused);
+        result.addUnhoused(unhoused);
+        ZooMetrics.ANIMALS_UNHOUSED.add(unhoused);
+
+        for (int i = 0; i < placed.length; i++) {
+            Animal animal = added.get(i);
+            Enclosure enclosure = placed[i];
+            result.set(addedIndexes[i], BulkResult.Outcome.ADDED);
+            listeners.forEach(listener -> listener.animalAdded(animal, enclosure));
+        }
+        return result;
+    }
+
+    private void fillIndexes(List<Animal> added, List<String> addedIds, List<String> requested, Enclosure[] placed,
+                             AnimalTable table, HealthArchive archive) {
+        ForkJoinTask.invokeAll(
+                ForkJoinTask.adapt(() -> nameIndex.addAll(added)),
+                ForkJoinTask.adapt(() -> sortedView.addAll(addedIds, added)),
+                ForkJoinTask.adapt(() -> {
+                    if (table != null) added.forEach(table::add);
+                }),
+                ForkJoinTask.adapt(() -> {
+                    if (archive != null) return;
+                    for (String normalizedId : addedIds) healthRecords.put(normalizedId, new HealthRecord(normalizedId));
+                }),
+                ForkJoinTask.adapt(() -> {
+                    assignToEnclosures(added, requested, placed);
+                    for (int i = 0; i < placed.length; i++) {
+                        if (placed[i] != null) animalEnclosures.put(addedIds.get(i), placed[i]);
+                    }
+                }));
+    }
+
+    // Takes a failed batch back out of whatever indexes it reached
+    private void undoIndexes(List<Animal> added, List<String> addedIds, Enclosure[] placed, AnimalTable table) {
+        Collection<Enclosure> allEnclosures = enclosures.values();
+        for (int i = 0; i < added.size(); i++) {
+            Animal animal = added.get(i);
+            String normalizedId = addedIds.get(i);
+            nameIndex.remove(animal);
+            sortedView.remove(normalizedId, animal);
+            if (table != null) table.remove(animal);
+            healthRecords.remove(normalizedId);
+            animalEnclosures.remove(normalizedId);
+            if (placed[i] != null) {
+                placement.release(placed[i], animal);
+            } else {
+                // Placement may have failed after housing it but before saying where
+                for (Enclosure enclosure : allEnclosures) {
+                    if (enclosure.containsAnimal(animal)) placement.release(enclosure, animal);
+                }
+            }
+        }
+    }
+
+    // A generated ID that no animal here has
+    public String nextAnimalId() {
+        String id = idGenerator.next();
+        while (animals.containsKey(id)) id = idGenerator.next();
+        return id;
+    }
+
+    public AnimalIdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    public Animal removeById(String id) {
+        long start = ZooMetrics.start();
+        String normalizedId = normalizeId(id);
+        try {
+            return mutate(normalizedId, () -> removeLocked(normalizedId));
+        } finally {
+            ZooMetrics.REMOVE_ANIMAL.record(start);
+        }
+    }
+
+    public BulkResult removeAll(Collection<String> ids) {
+        long start = ZooMetrics.start();
+        List<String> normalizedIds = new ArrayList<>(ids.size());
+        for (String id : ids) normalizedIds.add(normalizeId(id));
+        try {
+            return mutateAll(() -> {
+                BulkResult result = new BulkResult(normalizedIds.size());
+                for (int i = 0; i < normalizedIds.size(); i++) {
+                    result.set(i, removeLocked(normalizedIds.get(i)) != null
+                            ? BulkResult.Outcome.REMOVED : BulkResult.Outcome.NOT_FOUND);
+                }
+                return result;
+            });
+        } finally {
+            ZooMetrics.REMOVE_ALL.record(start);
+        }
+    }
+
+    public BulkResult removeAll(Stream<String> ids) {
+        return removeAll(ids.collect(Collectors.toList()));
+    }
+
+    // Caller holds the ID's stripe lock
+    private Animal removeLocked(String normalizedId) {
+        Animal animal = animals.get(normalizedId);
+        if (animal == null) return null;
+        animals.remove(normalizedId);
+
+        // Remove from enclosure
+        Enclosure enclosure = animalEnclosures.remove(normalizedId);
+        if (enclosure != null) placement.release(enclosure, animal);
+        statistics.animalRemoved(animal, enclosure);
+        nameIndex.remove(animal);
+        sortedView.remove(normalizedId, animal);
+        AnimalTable table = animalTable;
+        if (table != null) table.remove(animal);
+        HealthRecord record = healthRecords.remove(normalizedId);
+        if (record != null && healthArchive == null) healthTimeline.remove(record);
+        listeners.forEach(listener -> listener.animalRemoved(animal));
+        return animal;
+    }
+
+    public Animal getById(String id) {
+        return animals.get(id);
+    }
+
+    public List<Animal> getByName(String name) {
+        long start = ZooMetrics.start();
+        try {
+            return nameIndex.find(name);
+        } finally {
+            ZooMetrics.GET_BY_NAME.record(start);
+        }
+    }
+
+    public List<Animal> getByNamePrefix(String prefix) {
+        return nameIndex.findByPrefix(prefix);
+    }
+
+    // Read-only, and shared between callers until the next add or remove
+    public List<Animal> listSortedByType() {
+        return sortedView.list();
+    }
+
+    // One page of the same ordering
+    public List<Animal> listSortedByType(int offset, int limit) {
+        return sortedView.page(offset, limit);
+    }
+
+    public int size() {
+        return animals.size();
+    }
+
+    public ZooStatistics.Snapshot getStatistics() {
+        return statistics.snapshot();
+    }
+
+    // Animals of each kind, from the running counts
+    Map<AnimalProfile, Long> countByProfile() {
+        return statistics.countByProfile();
+    }
+
+    public Map<String, Integer> countByType() {
+        Map<String, Integer> counts = new TreeMap<>();
+        statistics.snapshot().getCountByType().forEach((type, count) -> counts.put(type, count.intValue()));
+        return counts;
+    }
+
+    public Map<String, Integer> countByHabitat() {
+        Map<String, Integer> counts = new TreeMap<>();
+        statistics.snapshot().getCountByHabitat().forEach((habitat, count) -> counts.put(habitat, count.intValue()));
+        return counts;
+    }
+
+    public ZooQuery query() {
+        return new ZooQuery(this);
+    }
+
+    // A copy, in no particular order
+    List<Animal> allAnimals() {
+        return animals.values();
+    }
+
+    public List<Animal> getAnimalsNeedingMedicalAttention() {
+        AnimalTable table = animalTable;
+        if (table != null) return table.needingMedicalAttention();
+        return animals.values().stream()
+                .filter(Animal::needsMedicalAttention)
+                .collect(Collectors.toList());
+    }
+
+    public boolean addEnclosure(Enclosure enclosure) {
+        if (enclosure == null) return false;
+        String normalizedId = normalizeId(enclosure.getId());
+        return mutate(normalizedId, () -> {
+            if (enclosures.putIfAbsent(normalizedId, enclosure) != null) return false;
+            placement.register(enclosure);
+            statistics.enclosureAdded(enclosure);
+            listeners.forEach(listener -> listener.enclosureAdded(enclosure));
+            return true;
+        });
+    }
+
+    public Enclosure getEnclosure(String id) {
+        return enclosures.get(normalizeId(id));
+    }
+
+    public List<Enclosure> getEnclosures() {
+        return new ArrayList<>(enclosures.values());
+    }
+
+    public Enclosure getEnclosureOf(String animalId) {
+        return animalEnclosures.get(animalId);
+    }
+
+    public HealthRecord getHealthRecord(String animalId) {
+        HealthRecord record = healthRecords.get(animalId);
+        HealthArchive archive = healthArchive;
+        if (record != null || archive == null) return record;
+
+        String normalizedId = normalizeId(animalId);
+        ReentrantLock lock = stripeFor(normalizedId);
+        lock.lock();
+        try {
+            if (!animals.containsKey(normalizedId)) return null;
+            record = healthRecords.get(normalizedId);
+            if (record == null) {
+                record = archive.load(normalizedId);
+                healthRecords.put(normalizedId, record);
+            }
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read health record for " + normalizedId, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Entries for every animal dated from..to, both inclusive, oldest first
+    public List<HealthTimeline.AnimalEntry> getHealthEntriesBetween(LocalDate from, LocalDate to) {
+        if (from == null || to == null) throw new IllegalArgumentException("Date range cannot be open");
+        HealthArchive archive = healthArchive;
+        if (archive == null) return healthTimeline.between(from, to);
+        try {
+            return archive.between(from, to);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read health archive", e);
+        }
+    }
+
+    // Zoo-wide counterpart of HealthRecord.getRecentEntries
+    public List<HealthTimeline.AnimalEntry> getRecentHealthEntries(int days) {
+        return getHealthEntriesBetween(LocalDate.now().minusDays(days).plusDays(1), LocalDate.MAX);
+    }
+
+    public void addHealthEntry(String animalId, String description, String veterinarian, String treatment) {
+        addHealthEntry(animalId, new HealthRecord.MedicalEntry(LocalDate.now(), description, veterinarian, treatment));
+    }
+
+    public void addHealthEntry(String animalId, HealthRecord.MedicalEntry entry) {
+        if (entry == null) return;
+        String normalizedId = normalizeId(animalId);
+        mutate(normalizedId, () -> {
+            if (!animals.containsKey(normalizedId)) return null;
+            HealthArchive archive = healthArchive;
+            if (archive != null) {
+                listeners.forEach(listener -> listener.beforeArchiveAppend(normalizedId));
+                try {
+                    archive.append(normalizedId, entry);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not save health entry for " + normalizedId, e);
+                }
+            }
+            // Only records that are already in memory need the entry; the rest load it later
+            HealthRecord record = healthRecords.get(normalizedId);
+            if (record != null) record.addEntry(entry);
+            if (archive == null) healthTimeline.add(normalizedId, entry);
+            listeners.forEach(listener -> listener.healthEntryAdded(normalizedId, entry));
+            return null;
+        });
+    }
+
+    public boolean updateHealthStatus(String animalId, Animal.HealthStatus status) {
+        if (status == null) return false;
+        String normalizedId = normalizeId(animalId);
+        return mutate(normalizedId, () -> {
+            Animal animal = animals.get(normalizedId);
+            if (animal == null) return false;
+            Animal.HealthStatus previous = animal.getHealthStatus();
+            if (previous == status) return true;
+            animal.setHealthStatus(status);
+            statistics.healthStatusChanged(previous, status);
+            AnimalTable table = animalTable;
+            if (table != null) table.healthChanged(animal);
+            listeners.forEach(listener -> listener.healthStatusChanged(animal, previous));
+            return true;
+        });
+    }
+
+    // Runs the action with every mutation blocked, e.g. to take a consistent snapshot.
+    // Must not be called from a thread that is already inside a Zoo mutation.
+    public <T> T exclusive(Supplier<T> action) {
+        int locked = 0;
+        try {
+            for (; locked < stripes.length; locked++) stripes[locked].lock();
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) stripes[i].unlock();
+        }
+    }
+
+    // Applies a change under the ID's stripe lock, then tells listeners it was released
+    private <T> T mutate(String normalizedId, Supplier<T> change) {
+        T result;
+        ReentrantLock lock = stripeFor(normalizedId);
+        lock.lock();
+        try {
+            listeners.forEach(ZooListener::beforeChange);
+            result = change.get();
+        } finally {
+            lock.unlock();
+        }
+        listeners.forEach(ZooListener::changeReleased);
+        return result;
+    }
+
+    // The same for a change that needs every stripe
+    private <T> T mutateAll(Supplier<T> change) {
+        T result = exclusive(() -> {
+            listeners.forEach(ZooListener::beforeChange);
+            return change.get();
+        });
+        listeners.forEach(ZooListener::changeReleased);
+        return result;
+    }
+
+    // Moves medical history to the archive. Records already in memory are dropped
+    // and reload from the archive, which must therefore hold all of them. Removals
+    // reach the archive through ZooPersistence, after the journal has them.
+    public void attachHealthArchive(HealthArchive archive) {
+        exclusive(() -> {
+            healthArchive = archive;
+            healthRecords.clear();
+            healthTimeline.clear();
+            return null;
+        });
+    }
+
+    // Starts keeping the columnar table, filled from the animals already here.
+    // Costs a few arrays' worth of memory per animal from then on.
+    public AnimalTable enableAnimalTable() {
+        return exclusive(() -> {
+            if (animalTable == null) {
+                AnimalTable table = new AnimalTable();
+                animals.values().forEach(table::add);
+                animalTable = table;
+            }
+            return animalTable;
+        });
+    }
+
+    // Null unless enableAnimalTable() has been called
+    public AnimalTable getAnimalTable() {
+        return animalTable;
+    }
+
+    public boolean hasHealthArchive() {
+        return healthArchive != null;
+    }
+
+    public PlacementPolicy getPlacementPolicy() {
+        return placement.getPolicy();
+    }
+
+    // Applies to animals added from now on; existing placements are left alone
+    public void setPlacementPolicy(PlacementPolicy policy) {
+        placement.setPolicy(policy);
+    }
+
+    public void addListener(ZooListener listener) {
+        if (listener != null) listeners.add(listener);
+    }
+
+    public void removeListener(ZooListener listener) {
+        listeners.remove(listener);
+    }
+
+    private Enclosure assignToEnclosure(Animal animal, String enclosureId) {
+        long start = ZooMetrics.start();
+        try {
+            if (enclosureId != null) {
+                Enclosure requested = enclosures.get(normalizeId(enclosureId));
+                if (requested != null && placement.placeInto(requested, animal)) return requested;
+            }
+            return placement.place(animal);
+        } finally {
+            ZooMetrics.ASSIGN_ENCLOSURE.record(start);
+        }
+    }
+
+    // Requested enclosures first, then one placement pass for everyone else
+    private void assignToEnclosures(List<Animal> animals, List<String> enclosureIds, Enclosure[] placed) {
+        List<Animal> unplaced = new ArrayList<>(animals.size());
+        int[] unplacedIndexes = new int[animals.size()];
+        for (int i = 0; i < placed.length; i++) {
+            Animal animal = animals.get(i);
+            String enclosureId = enclosureIds == null ? null : enclosureIds.get(i);
+            if (enclosureId != null) {
+                Enclosure enclosure = enclosures.get(normalizeId(enclosureId));
+                if (enclosure != null && placement.placeInto(enclosure, animal)) {
+                    placed[i] = enclosure;
+                    continue;
+                }
+            }
+            unplacedIndexes[unplaced.size()] = i;
+            unplaced.add(animal);
+        }
+        Enclosure[] chosen = placement.placeAll(unplaced);
+        for (int i = 0; i < chosen.length; i++) placed[unplacedIndexes[i]] = chosen[i];
+    }
+
+    private ReentrantLock stripeFor(String normalizedId) {
+        return stripes[(normalizedId.hashCode() & 0x7FFFFFFF) % stripes.length];
+    }
+
+    private String normalizeId(String id) {
+        return AnimalIdMap.normalize(id);
+    }
+}
@@ -0,0 +1,185 @@
+package zoo;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Runs a script of zoo operations without the interactive menu, one command per
+// line with '|' between fields (so descriptions may contain commas):
+//
+//   add|<type>|<name>|<age>[|<id>[|<enclosure id>]]
+//   remove|<id>
+//   set-health|<id>|<HEALTHY|SICK|CRITICAL|RECOVERING>
+//   add-health-entry|<id>|<description>|<veterinarian>|<treatment>[|<yyyy-mm-dd>]
+//   add-enclosure|<id>|<habitat>|<capacity>
+//
+// Blank lines and lines starting with '#' are skipped. A command that fails is
+// reported with its line number and the rest carry on. Output is buffered and
+// written once per batch along with that batch's throughput.
+//
+// Consecutive add lines within a batch go to Zoo.addAll together, and each
+// animal's outcome is reported against its own line. Any other command first
+// submits the adds queued before it, so commands still see every earlier line.
+// Within one run of adds, animals that name an enclosure are placed before the
+// rest, as addAll does.
+public class ZooBatch {
+    private static final char DELIMITER = '|';
+
+    private final Zoo zoo;
+    private final PrintWriter out;
+    private final int batchSize;
+
+    private long commands;
+    private long failures;
+    // Adds waiting to go to Zoo.addAll, with their line numbers
+    private final List<Animal> queuedAnimals = new ArrayList<>();
+    private final List<String> queuedEnclosureIds = new ArrayList<>();
+    private final List<Long> queuedLines = new ArrayList<>();
+
+    public ZooBatch(Zoo zoo, PrintWriter out, int batchSize) {
+        if (batchSize <= 0) throw new IllegalArgumentException("Batch size must be positive");
+        this.zoo = zoo;
+        this.out = out;
+        this.batchSize = batchSize;
+    }
+
+    public long getCommands() { return commands; }
+    public long getFailures() { return failures; }
+
+    public void run(Reader in) throws IOException {
+        CsvReader reader = new CsvReader(in, DELIMITER);
+        long start = System.nanoTime();
+        int batch = 0;
+        int inBatch = 0;
+        int failedInBatch = 0;
+        long batchStart = start;
+
+        while (reader.next()) {
+            if (reader.isBlankLine() || reader.field(0).trim().startsWith("#")) continue;
+            if (!reader.field(0).trim().equalsIgnoreCase("add")) failedInBatch += submitAdds();
+            String error = apply(reader);
+            commands++;
+            inBatch++;
+            if (error != null) {
+                // Queued adds come first, so errors stay in line order
+                failedInBatch += submitAdds();
+                failures++;
+                failedInBatch++;
+                out.println("line " + reader.lineNumber() + ": " + error);
+            }
+            if (inBatch == batchSize) {
+                failedInBatch += submitAdds();
+                reportBatch(++batch, inBatch, failedInBatch, batchStart);
+                inBatch = 0;
+                failedInBatch = 0;
+                batchStart = System.nanoTime();
+            }
+        }
+        if (inBatch > 0) {
+            failedInBatch += submitAdds();
+            reportBatch(++batch, inBatch, failedInBatch, batchStart);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        out.printf("Done: %d commands (%d failed) in %d ms, %.0f commands/s%n",
+                commands, failures, elapsed / 1_000_000, rate(commands, elapsed));
+        out.flush();
+    }
+
+    // Applies one command, or queues it if it is an add; returns why it failed,
+    // or null if it worked or was queued
+    private String apply(CsvReader line) {
+        String command = line.field(0).trim().toLowerCase(Locale.ROOT);
+        try {
+            switch (command) {
+                case "add" -> {
+                    expectFields(line, 4, 6);
+                    String id = optional(line, 4);
+                    id = id == null ? zoo.nextAnimalId() : AnimalIdGenerator.requireUserId(id);
+                    queuedAnimals.add(AnimalFactory.createAnimal(text(line, 1), id, text(line, 2), Integer.parseInt(text(line, 3))));
+                    queuedEnclosureIds.add(optional(line, 5));
+                    queuedLines.add(line.lineNumber());
+                }
+                case "remove" -> {
+                    expectFields(line, 2, 2);
+                    if (zoo.removeById(text(line, 1)) == null) return "no animal with ID " + text(line, 1);
+                }
+                case "set-health" -> {
+                    expectFields(line, 3, 3);
+                    Animal.HealthStatus status = Animal.HealthStatus.valueOf(text(line, 2).toUpperCase(Locale.ROOT));
+                    if (!zoo.updateHealthStatus(text(line, 1), status)) return "no animal with ID " + text(line, 1);
+                }
+                case "add-health-entry" -> {
+                    expectFields(line, 5, 6);
+                    if (zoo.getById(text(line, 1)) == null) return "no animal with ID " + text(line, 1);
+                    String date = optional(line, 5);
+                    zoo.addHealthEntry(text(line, 1), new HealthRecord.MedicalEntry(
+                            date == null ? LocalDate.now() : LocalDate.parse(date),
+                            text(line, 2), text(line, 3), text(line, 4)));
+                }
+                case "add-enclosure" -> {
+                    expectFields(line, 4, 4);
+                    Enclosure enclosure = new Enclosure(text(line, 1), text(line, 2), Integer.parseInt(text(line, 3)));
+                    if (!zoo.addEnclosure(enclosure)) return "an enclosure with ID " + enclosure.getId() + " already exists";
+                }
+                default -> {
+                    return "unknown command '" + command + "'";
+                }
+            }
+            return null;
+        } catch (RuntimeException e) {
+            return e.getMessage() == null ? e.toString() : e.getMessage();
+        }
+    }
+
+    // Adds the queued animals in one Zoo.addAll, reports the lines whose animal
+    // was not added, and returns how many that was
+    private int submitAdds() {
+        if (queuedAnimals.isEmpty()) return 0;
+        BulkResult result = zoo.addAll(queuedAnimals, queuedEnclosureIds);
+        int failed = 0;
+        for (int i = 0; i < result.size(); i++) {
+            if (result.getOutcome(i) == BulkResult.Outcome.ADDED) continue;
+            failed++;
+            failures++;
+            out.println("line " + queuedLines.get(i) + ": an animal with ID " + queuedAnimals.get(i).getId() + " already exists");
+        }
+        queuedAnimals.clear();
+        queuedEnclosureIds.clear();
+        queuedLines.clear();
+        return failed;
+    }
+
+    private void reportBatch(int batch, int count, int failed, long batchStart) {
+        long elapsed = System.nanoTime() - batchStart;
+        out.printf("Batch %d: %d commands (%d failed) in %d ms, %.0f commands/s%n",
+                batch, count, failed, elapsed / 1_000_000, rate(count, elapsed));
+        out.flush();
+    }
+
+    private static double rate(long count, long nanos) {
+        return nanos == 0 ? 0 : count * 1e9 / nanos;
+    }
+
+    private static void expectFields(CsvReader line, int min, int max) {
+        if (line.fieldCount() < min || line.fieldCount() > max) {
+            throw new IllegalArgumentException(String.format("expected %s fields but got %d",
+                    min == max ? String.valueOf(min) : min + " to " + max, line.fieldCount()));
+        }
+    }
+
+    private static String text(CsvReader line, int index) {
+        return line.field(index).trim();
+    }
+
+    // Missing and empty fields both count as not given
+    private static String optional(CsvReader line, int index) {
+        if (index >= line.fieldCount()) return null;
+        String value = text(line, index);
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -1,24 +1,44 @@
+package zoo;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Scanner;
+import java.util.function.Consumer;
 
 public class ZooConsoleApp {
     private final Zoo zoo = new Zoo();
-    private final ZooStorage storage = new ZooStorage();
+    private final ZooPersistence persistence = new ZooPersistence(SNAPSHOT_PATH);
     private final Scanner scanner = new Scanner(System.in);
+    private final ConsoleRenderer renderer = new ConsoleRenderer(System.out);
+    private final FeedingScheduler feedingScheduler = new FeedingScheduler(zoo);
     private static final String FILE_PATH = "zoo_data.csv";
+    private static final String SNAPSHOT_PATH = "zoo_data.snap";
+    private static final String METRICS_PATH = "zoo_metrics.txt";
+    private static final int PAGE_SIZE = 50;
+
+    private enum Output { ALL, PAGED, COUNT }
 
     public void start() {
         try {
-            storage.load(FILE_PATH, zoo);
+            LoadReport report = persistence.open(zoo, FILE_PATH);
             System.out.println("Data loaded successfully.");
+            if (report.getMalformedCount() > 0) {
+                System.out.println("Skipped " + report.getMalformedCount() + " malformed entries:");
+                report.getMalformedLines().forEach(line -> System.out.println("  " + line));
+            }
         } catch (Exception e) {
-            System.out.println("Starting with a fresh zoo.");
+            System.out.println("Could not load saved data: " + e.getMessage());
+            System.out.println("Starting with a fresh zoo. Changes in this session will not be saved.");
         }
 
         while (true) {
             System.out.println("\n=== ZOO MANAGEMENT SYSTEM ===");
             System.out.println("1. Add Animal | 2. List All Animals | 3. View Animal Details");
             System.out.println("4. Remove Animal | 5. Statistics | 6. Manage Enclosures");
-            System.out.println("7. Health Records | 8. Feed Animals | 9. Exit");
+            System.out.println("7. Health Records | 8. Feed Animals | 9. Exit | 10. Diagnostics");
             String choice = scanner.nextLine();
 
             switch (choice) {
@@ -31,6 +51,7 @@ public class ZooConsoleApp {
                 case "7" -> manageHealthRecords();
                 case "8" -> feedAnimals();
                 case "9" -> { saveAndExit(); return; }
+                case "10" -> showDiagnostics();
                 default -> System.out.println("Invalid option.");
             }
         }
@@ -47,8 +68,7 @@ public class ZooConsoleApp {
             System.out.print("Enter Age: ");
             int age = Integer.parseInt(scanner.nextLine());
 
-            // Generate unique ID
-            String id = java.util.UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+            String id = zoo.nextAnimalId();
 
             Animal animal = AnimalFactory.createAnimal(type, id, name, age);
             if (zoo.addAnimal(animal)) {
@@ -68,16 +88,51 @@ public class ZooConsoleApp {
             return;
         }
 
-        System.out.println("\n--- ANIMALS IN ZOO ---");
-        animals.forEach(a ->
-            System.out.printf("[%s] ID: %s | Name: %s | Age: %d | Health: %s%n",
-                a.getType(), a.getId(), a.getName(), a.getAge(), a.getHealthStatus()));
+        Output output = chooseOutput(animals.size(), "animals");
+        if (output == Output.COUNT) {
+            System.out.println(animals.size() + " animals in the zoo.");
+            return;
+        }
+        renderer.line("\n--- ANIMALS IN ZOO ---");
+        show(animals, output, renderer::animals);
+    }
+
+    // Small listings are always shown in full; past a page the user can page
+    // through them or just get the count
+    private Output chooseOutput(int count, String what) {
+        if (count <= PAGE_SIZE) return Output.ALL;
+        System.out.print(count + " " + what + ". Show (a)ll, (p)age by page or (c)ount only? [p]: ");
+        return switch (scanner.nextLine().trim().toLowerCase()) {
+            case "a" -> Output.ALL;
+            case "c" -> Output.COUNT;
+            default -> Output.PAGED;
+        };
+    }
+
+    private void show(List<Animal> animals, Output output, Consumer<List<Animal>> render) {
+        if (output == Output.ALL) {
+            render.accept(animals);
+            renderer.flush();
+            return;
+        }
+        for (int from = 0; from < animals.size(); from += PAGE_SIZE) {
+            int to = Math.min(from + PAGE_SIZE, animals.size());
+            render.accept(animals.subList(from, to));
+            if (to == animals.size()) break;
+            renderer.line("-- " + (from + 1) + "-" + to + " of " + animals.size() + ", Enter for more, q to stop --").flush();
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) return;
+        }
+        renderer.flush();
     }
 
     private void viewAnimalDetails() {
         System.out.print("Enter animal name: ");
         String name = scanner.nextLine();
         var matchingAnimals = zoo.getByName(name);
+        if (matchingAnimals.isEmpty() && !name.isBlank()) {
+            // Fall back to a "starts with" search for partial names
+            matchingAnimals = zoo.getByNamePrefix(name);
+        }
 
         if (matchingAnimals.isEmpty()) {
             System.out.println("Animal not found.");
@@ -121,13 +176,8 @@ public class ZooConsoleApp {
         System.out.println("Sound: " + animal.makeSound());
 
         // Show enclosure info
-        zoo.getEnclosures().stream()
-            .filter(e -> e.containsAnimal(animal))
-            .findFirst()
-            .ifPresentOrElse(
-                e -> System.out.println("Enclosure: " + e.getId()),
-                () -> System.out.println("Enclosure: Not assigned")
-            );
+        Enclosure enclosure = zoo.getEnclosureOf(animal.getId());
+        System.out.println("Enclosure: " + (enclosure != null ? enclosure.getId() : "Not assigned"));
     }
 
     private void removeAnimal() {
@@ -139,24 +189,30 @@ public class ZooConsoleApp {
     }
 
     private void showStatistics() {
+        ZooStatistics.Snapshot stats = zoo.getStatistics();
         System.out.println("\n--- ZOO STATISTICS ---");
-        System.out.println("Total Animals: " + zoo.listSortedByType().size());
+        System.out.println("Total Animals: " + stats.getTotalAnimals());
 
         System.out.println("\nBy Type:");
-        zoo.countByType().forEach((type, count) ->
+        stats.getCountByType().forEach((type, count) ->
             System.out.println("  " + type + ": " + count));
 
         System.out.println("\nBy Habitat:");
-        zoo.countByHabitat().forEach((habitat, count) ->
+        stats.getCountByHabitat().forEach((habitat, count) ->
             System.out.println("  " + habitat + ": " + count));
 
-        System.out.println("\nEnclosures:");
-        zoo.getEnclosures().forEach(e ->
-            System.out.println("  " + e));
+        System.out.println("\nBy Health:");
+        stats.getCountByHealth().forEach((status, count) ->
+            System.out.println("  " + status + ": " + count));
+
+        System.out.println("\nEnclosures: " + stats.getEnclosureCount() +
+            " (occupancy " + stats.getHousedAnimals() + "/" + stats.getEnclosureCapacity() +
+            ", unassigned animals: " + stats.getUnhousedAnimals() + ")");
+        zoo.getEnclosures().forEach(e -> renderer.line("  " + e));
+        renderer.flush();
 
-        var sickAnimals = zoo.getAnimalsNeedingMedicalAttention();
-        if (!sickAnimals.isEmpty()) {
-            System.out.println("\nAnimals needing medical attention: " + sickAnimals.size());
+        if (stats.getNeedingMedicalAttention() > 0) {
+            System.out.println("\nAnimals needing medical attention: " + stats.getNeedingMedicalAttention());
         }
     }
 
@@ -166,16 +222,19 @@ public class ZooConsoleApp {
         String choice = scanner.nextLine();
 
         switch (choice) {
-            case "1" -> zoo.getEnclosures().forEach(System.out::println);
+            case "1" -> {
+                zoo.getEnclosures().forEach(e -> renderer.line(e.toString()));
+                renderer.flush();
+            }
             case "2" -> {
                 System.out.print("Enter enclosure ID: ");
                 String id = scanner.nextLine();
                 Enclosure enclosure = zoo.getEnclosure(id);
                 if (enclosure != null) {
-                    System.out.println(enclosure);
-                    System.out.println("Animals:");
+                    renderer.line(enclosure.toString()).line("Animals:");
                     enclosure.getAnimals().forEach(a ->
-                        System.out.println("  - " + a.getName() + " (" + a.getType() + ")"));
+                        renderer.line("  - " + a.getName() + " (" + a.getType() + ")"));
+                    renderer.flush();
                 } else {
                     System.out.println("Enclosure not found.");
                 }
@@ -235,8 +294,9 @@ public class ZooConsoleApp {
                 Animal animal = selectAnimalByName("Enter animal name: ");
                 if (animal != null) {
                     HealthRecord record = zoo.getHealthRecord(animal.getId());
-                    System.out.println("Health Record for " + animal.getName() + ":");
-                    record.getEntries().forEach(System.out::println);
+                    renderer.line("Health Record for " + animal.getName() + ":");
+                    record.getEntries().forEach(entry -> renderer.line(entry.toString()));
+                    renderer.flush();
                 }
             }
             case "2" -> {
@@ -261,7 +321,7 @@ public class ZooConsoleApp {
                     System.out.print("New status: ");
                     try {
                         Animal.HealthStatus status = Animal.HealthStatus.valueOf(scanner.nextLine().toUpperCase());
-                        animal.setHealthStatus(status);
+                        zoo.updateHealthStatus(animal.getId(), status);
                         System.out.println("Health status updated.");
                     } catch (Exception e) {
                         System.out.println("Invalid status.");
@@ -313,29 +373,105 @@ public class ZooConsoleApp {
             return;
         }
 
+        Output output = chooseOutput(animals.size(), "animals to feed");
         System.out.println("Feeding all animals...");
-        animals.forEach(animal -> {
-            String food = switch (animal.getDiet().toLowerCase()) {
-                case "carnivore" -> "meat";
-                case "herbivore" -> "plants";
-                case "omnivore" -> "mixed food";
-                default -> "food";
-            };
-            System.out.println(animal.getName() + " the " + animal.getType().toLowerCase() + " is eating " + food + ".");
-        });
+        long start = System.nanoTime();
+        FeedingScheduler.Plan plan = feedingScheduler.plan();
+        long elapsed = System.nanoTime() - start;
+        if (output != Output.COUNT) show(animals, output, renderer::feedings);
+
+        System.out.printf("Feeding plan for %d animals in %d enclosures (%d unassigned), worked out in %.1f ms.%n",
+            plan.getAnimalCount(), plan.getEnclosures().size(),
+            plan.getUnassigned() == null ? 0 : plan.getUnassigned().getAnimalCount(), elapsed / 1e6);
+        System.out.println("Food order:");
+        plan.getOrder().forEach((food, kilograms) -> System.out.printf("  %s: %.1f kg for %d animals%n",
+            food.getLabel(), kilograms, plan.getAnimalCount(food)));
         System.out.println("All animals have been fed!");
     }
 
+    private void showDiagnostics() {
+        System.out.println("\n--- DIAGNOSTICS ---");
+        System.out.println("Metrics are " + (ZooMetrics.isEnabled() ? "on" : "off") + ".");
+        System.out.println("1. Show Metrics | 2. Turn Metrics " + (ZooMetrics.isEnabled() ? "Off" : "On") +
+            " | 3. Reset Metrics | 4. Dump Metrics to File");
+        String choice = scanner.nextLine();
+
+        switch (choice) {
+            case "1" -> ZooMetrics.writeReport(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            case "2" -> {
+                ZooMetrics.setEnabled(!ZooMetrics.isEnabled());
+                System.out.println("Metrics turned " + (ZooMetrics.isEnabled() ? "on" : "off") + ".");
+            }
+            case "3" -> {
+                ZooMetrics.reset();
+                System.out.println("Metrics reset.");
+            }
+            case "4" -> {
+                System.out.print("File name [" + METRICS_PATH + "]: ");
+                String file = scanner.nextLine().trim();
+                if (file.isEmpty()) file = METRICS_PATH;
+                try {
+                    ZooMetrics.dump(Paths.get(file));
+                    System.out.println("Metrics written to " + file + ".");
+                } catch (IOException e) {
+                    System.out.println("Could not write metrics: " + e.getMessage());
+                }
+            }
+            default -> System.out.println("Invalid option.");
+        }
+    }
+
     private void saveAndExit() {
+        if (!persistence.isOpen()) {
+            System.out.println("Goodbye!");
+            return;
+        }
         try {
-            storage.save(FILE_PATH, zoo);
+            persistence.close();
             System.out.println("Data saved. Goodbye!");
         } catch (Exception e) {
             System.out.println("Error saving data: " + e.getMessage());
         }
     }
 
+    // Runs a command script instead of the menu, then saves once
+    public void runBatch(String scriptPath, int batchSize) {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024));
+        try {
+            persistence.open(zoo, FILE_PATH, false);
+        } catch (Exception e) {
+            System.out.println("Could not load saved data: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        ZooBatch batch = new ZooBatch(zoo, out, batchSize);
+        try (Reader in = scriptPath.equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(scriptPath))) {
+            batch.run(in);
+        } catch (IOException e) {
+            out.println("Could not read " + scriptPath + ": " + e.getMessage());
+        }
+
+        long start = System.nanoTime();
+        try {
+            persistence.close();
+            out.printf("Data saved in %d ms.%n", (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            out.println("Error saving data: " + e.getMessage());
+        }
+        out.flush();
+        if (batch.getFailures() > 0) System.exit(3);
+    }
+
+    // Usage: zoo.ZooConsoleApp [--batch <script file, or - for stdin> [--batch-size n]]
     public static void main(String[] args) {
+        if (args.length >= 2 && args[0].equals("--batch")) {
+            int batchSize = args.length >= 4 && args[2].equals("--batch-size") ? Integer.parseInt(args[3]) : 10_000;
+            new ZooConsoleApp().runBatch(args[1], batchSize);
+            return;
+        }
         new ZooConsoleApp().start();
     }
 }
@@ -0,0 +1,358 @@
+package zoo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.*;
+
+// Produces large, repeatable zoos for load and scale testing. The same settings
+// and seed always give the same animals, enclosures and medical history.
+//
+// Animals are generated one at a time and written straight to the output, so
+// memory use does not grow with the number of animals. Types and health
+// statuses follow configurable weights, names are drawn from a pool with a
+// Zipf-like skew (a few very common names, a long tail of rare ones), and every
+// animal is housed: enclosures are sized from an up-front count of each habitat.
+//
+// Usage: java -cp target/classes zoo.ZooDataGenerator --animals 1000000 --seed 42
+//        --format csv|snapshot --out zoo_data.csv [--history-mean 2.5]
+public class ZooDataGenerator {
+    private static final String[] SYLLABLES = {
+            "ba", "ko", "ri", "ta", "lu", "me", "zo", "ni", "sha", "ra", "po", "ki",
+            "la", "mo", "fi", "du", "ge", "an", "el", "is", "on", "ur", "ya", "vi"
+    };
+    private static final String[] COMPLAINTS = {
+            "Annual checkup", "Dental cleaning", "Limping", "Skin rash", "Loss of appetite",
+            "Eye infection", "Vaccination", "Weight check", "Parasite screening", "Minor wound"
+    };
+    private static final String[] TREATMENTS = {
+            "None required", "Antibiotics", "Rest", "Topical cream", "Diet change",
+            "Eye drops", "Booster shot", "Stitches", "Deworming", "Observation"
+    };
+    private static final String[] VETERINARIANS = {
+            "Adams", "Brooks", "Chen", "Diaz", "Evans", "Fischer", "Garcia", "Haddad"
+    };
+    // Salt for the second random stream, so types can be counted without the rest
+    private static final long DETAIL_SALT = 0x5DEECE66DL;
+
+    private long seed = 42;
+    private long animalCount = 1000;
+    private int enclosureCapacity = 50;
+    private int namePoolSize = 5000;
+    private double nameSkew = 1.1;
+    private double meanHistoryEntries = 2.0;
+    private int historyDays = 5 * 365;
+    private LocalDate today = LocalDate.now();
+    private final Map<String, Integer> typeWeights = new LinkedHashMap<>();
+    private final Map<Animal.HealthStatus, Integer> healthWeights = new EnumMap<>(Animal.HealthStatus.class);
+
+    public ZooDataGenerator() {
+        AnimalFactory.TYPES.forEach(type -> typeWeights.put(type, 1));
+        healthWeights.put(Animal.HealthStatus.HEALTHY, 85);
+        healthWeights.put(Animal.HealthStatus.SICK, 7);
+        healthWeights.put(Animal.HealthStatus.CRITICAL, 2);
+        healthWeights.put(Animal.HealthStatus.RECOVERING, 6);
+    }
+
+    public void setSeed(long seed) { this.seed = seed; }
+    public void setAnimalCount(long animalCount) {
+        if (animalCount < 0 || animalCount > 0xFFFFFFFFL) throw new IllegalArgumentException("Animal count must be between 0 and 2^32 - 1");
+        this.animalCount = animalCount;
+    }
+    public void setEnclosureCapacity(int enclosureCapacity) {
+        if (enclosureCapacity <= 0) throw new IllegalArgumentException("Enclosure capacity must be positive");
+        this.enclosureCapacity = enclosureCapacity;
+    }
+    public void setNamePoolSize(int namePoolSize) {
+        if (namePoolSize <= 0) throw new IllegalArgumentException("Name pool size must be positive");
+        this.namePoolSize = namePoolSize;
+    }
+    // 0 picks names uniformly; around 1 gives the long-tailed spread of real names
+    public void setNameSkew(double nameSkew) {
+        if (nameSkew < 0) throw new IllegalArgumentException("Name skew cannot be negative");
+        this.nameSkew = nameSkew;
+    }
+    public void setMeanHistoryEntries(double meanHistoryEntries) {
+        if (meanHistoryEntries < 0) throw new IllegalArgumentException("Mean history entries cannot be negative");
+        this.meanHistoryEntries = meanHistoryEntries;
+    }
+    public void setHistoryDays(int historyDays) {
+        if (historyDays <= 0) throw new IllegalArgumentException("History days must be positive");
+        this.historyDays = historyDays;
+    }
+    // History dates count back from this day; fix it for byte-identical output across days
+    public void setToday(LocalDate today) { this.today = today; }
+
+    public void setTypeWeight(String type, int weight) {
+        String known = AnimalFactory.TYPES.stream()
+                .filter(candidate -> candidate.equalsIgnoreCase(type.trim()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown animal type: " + type));
+        if (weight < 0) throw new IllegalArgumentException("Weights cannot be negative");
+        typeWeights.put(known, weight);
+    }
+
+    public void setHealthWeight(Animal.HealthStatus status, int weight) {
+        if (weight < 0) throw new IllegalArgumentException("Weights cannot be negative");
+        healthWeights.put(status, weight);
+    }
+
+    // Writes enclosure rows followed by animal rows in the format ZooStorage
+    // loads, and returns the number of enclosures
+    public int writeCsv(Path path) throws IOException {
+        Plan plan = plan();
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            for (Enclosure enclosure : plan.enclosures) ZooStorage.writeEnclosureRow(out, enclosure);
+            generate(plan, (animal, enclosureId) -> ZooStorage.writeAnimalRow(out, animal, enclosureId));
+        }
+        return plan.enclosures.size();
+    }
+
+    // Writes a binary snapshot and returns the number of enclosures. The zoo's
+    // default enclosures are left out; a zoo loading it already has them.
+    public int writeSnapshot(Path path) throws IOException {
+        Plan plan = plan();
+        try (ZooSnapshot.Writer writer = new ZooSnapshot.Writer(path, plan.enclosures.size(), animalCount)) {
+            for (Enclosure enclosure : plan.enclosures) writer.writeEnclosure(enclosure);
+            generate(plan, (animal, enclosureId) -> writer.writeAnimal(animal, animal.getHealthStatus(), enclosureId));
+        }
+        return plan.enclosures.size();
+    }
+
+    // Writes medical history for the same animals as writeCsv/writeSnapshot into
+    // a health archive, e.g. "zoo_data.snap.health" next to a generated snapshot.
+    // Entry counts per animal follow a geometric distribution with the configured mean.
+    public long writeHealthArchive(Path directory) throws IOException {
+        if (Files.exists(directory)) throw new IOException("Health archive already exists: " + directory);
+        SplittableRandom random = new SplittableRandom(seed ^ (DETAIL_SALT * 31));
+        long[] written = new long[1];
+        try (HealthArchive archive = new HealthArchive(directory, false)) {
+            generate(plan(), (animal, enclosureId) -> {
+                int entries = historyLength(random);
+                for (int i = 0; i < entries; i++) {
+                    archive.append(animal.getId(), new HealthRecord.MedicalEntry(
+                            today.minusDays(random.nextInt(historyDays)),
+                            COMPLAINTS[random.nextInt(COMPLAINTS.length)],
+                            VETERINARIANS[random.nextInt(VETERINARIANS.length)],
+                            TREATMENTS[random.nextInt(TREATMENTS.length)]));
+                }
+                written[0] += entries;
+            });
+        }
+        return written[0];
+    }
+
+    private interface AnimalSink {
+        void accept(Animal animal, String enclosureId) throws IOException;
+    }
+
+    // What has to be known before the first animal is written: how many of each
+    // type there will be, and so which enclosures to create
+    private static class Plan {
+        private final String[] types;
+        private final int[] typeCutoffs;
+        private final String[] habitats;
+        private final int[] habitatOfType;
+        private final List<Enclosure> enclosures = new ArrayList<>();
+        private final List<List<Enclosure>> enclosuresByHabitat = new ArrayList<>();
+
+        Plan(String[] types, int[] typeCutoffs, String[] habitats, int[] habitatOfType) {
+            this.types = types;
+            this.typeCutoffs = typeCutoffs;
+            this.habitats = habitats;
+            this.habitatOfType = habitatOfType;
+        }
+    }
+
+    private Plan plan() {
+        String[] types = typeWeights.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toArray(String[]::new);
+        if (types.length == 0) throw new IllegalStateException("At least one animal type needs a positive weight");
+        int[] typeCutoffs = cutoffs(Arrays.stream(types).mapToInt(typeWeights::get).toArray());
+
+        List<String> habitatList = new ArrayList<>();
+        int[] habitatOfType = new int[types.length];
+        for (int i = 0; i < types.length; i++) {
+            String habitat = AnimalFactory.createAnimal(types[i], "X", "X", 1).getHabitatType();
+            if (!habitatList.contains(habitat)) habitatList.add(habitat);
+            habitatOfType[i] = habitatList.indexOf(habitat);
+        }
+        Plan plan = new Plan(types, typeCutoffs, habitatList.toArray(new String[0]), habitatOfType);
+
+        // Replays just the type stream to count each habitat's animals
+        long[] perHabitat = new long[plan.habitats.length];
+        SplittableRandom typeRandom = new SplittableRandom(seed);
+        for (long i = 0; i < animalCount; i++) {
+            perHabitat[habitatOfType[pick(typeCutoffs, typeRandom)]]++;
+        }
+        for (int h = 0; h < plan.habitats.length; h++) {
+            List<Enclosure> enclosures = new ArrayList<>();
+            String prefix = plan.habitats[h].toUpperCase(Locale.ROOT).replace(' ', '_') + "_G";
+            long needed = (perHabitat[h] + enclosureCapacity - 1) / enclosureCapacity;
+            for (long e = 1; e <= needed; e++) {
+                enclosures.add(new Enclosure(prefix + e, plan.habitats[h], enclosureCapacity));
+            }
+            plan.enclosuresByHabitat.add(enclosures);
+            plan.enclosures.addAll(enclosures);
+        }
+        return plan;
+    }
+
+    private void generate(Plan plan, AnimalSink sink) throws IOException {
+        SplittableRandom typeRandom = new SplittableRandom(seed);
+        SplittableRandom random = new SplittableRandom(seed ^ DETAIL_SALT);
+        String[] names = namePool(random);
+        double[] nameCdf = zipfCdf(names.length);
+        int[] healthCutoffs = cutoffs(Arrays.stream(Animal.HealthStatus.values())
+                .mapToInt(status -> healthWeights.getOrDefault(status, 0)).toArray());
+        if (healthCutoffs[healthCutoffs.length - 1] == 0) throw new IllegalStateException("At least one health status needs a positive weight");
+        long[] housed = new long[plan.habitats.length];
+
+        for (long i = 0; i < animalCount; i++) {
+            int type = pick(plan.typeCutoffs, typeRandom);
+            Animal animal = AnimalFactory.createAnimal(plan.types[type], id(i),
+                    names[pickName(nameCdf, random)], 1 + random.nextInt(30));
+            animal.setHealthStatus(Animal.HealthStatus.values()[pick(healthCutoffs, random)]);
+
+            int habitat = plan.habitatOfType[type];
+            Enclosure enclosure = plan.enclosuresByHabitat.get(habitat).get((int) (housed[habitat]++ / enclosureCapacity));
+            sink.accept(animal, enclosure.getId());
+        }
+    }
+
+    // Multiplying by an odd constant is a bijection on 32-bit values, so ids are
+    // unique without remembering the ones already used, yet do not look sequential
+    private static String id(long index) {
+        return String.format("%08X", (index * 0x9E3779B1L) & 0xFFFFFFFFL);
+    }
+
+    private String[] namePool(SplittableRandom random) {
+        Set<String> names = new LinkedHashSet<>();
+        int attempts = 0;
+        while (names.size() < namePoolSize && attempts++ < namePoolSize * 20) {
+            StringBuilder name = new StringBuilder();
+            int syllables = 2 + random.nextInt(2);
+            for (int s = 0; s < syllables; s++) name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+            names.add(name.toString());
+        }
+        // Fewer distinct syllable combinations than asked for; number the rest
+        for (int n = 2; names.size() < namePoolSize; n++) {
+            names.add(SYLLABLES[n % SYLLABLES.length].toUpperCase(Locale.ROOT).charAt(0) + "ox" + n);
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private double[] zipfCdf(int size) {
+        double[] cdf = new double[size];
+        double total = 0;
+        for (int rank = 0; rank < size; rank++) {
+            total += 1.0 / Math.pow(rank + 1, nameSkew);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < size; rank++) cdf[rank] /= total;
+        return cdf;
+    }
+
+    private static int pickName(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(cdf.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    private int historyLength(SplittableRandom random) {
+        if (meanHistoryEntries <= 0) return 0;
+        // Geometric on {0, 1, 2, ...} with the configured mean
+        double p = 1.0 / (1.0 + meanHistoryEntries);
+        return (int) Math.min(10_000, Math.floor(Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p)));
+    }
+
+    private static int[] cutoffs(int[] weights) {
+        int[] cutoffs = new int[weights.length];
+        int total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cutoffs[i] = total;
+        }
+        return cutoffs;
+    }
+
+    private static int pick(int[] cutoffs, SplittableRandom random) {
+        int roll = random.nextInt(cutoffs[cutoffs.length - 1]);
+        for (int i = 0; i < cutoffs.length; i++) {
+            if (roll < cutoffs[i]) return i;
+        }
+        return cutoffs.length - 1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        ZooDataGenerator generator = new ZooDataGenerator();
+        String format = "csv";
+        String out = null;
+        String health = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String value = i + 1 < args.length ? args[i + 1] : null;
+                if (value == null) throw new IllegalArgumentException("Missing value for " + args[i]);
+                switch (args[i++]) {
+                    case "--animals" -> generator.setAnimalCount(Long.parseLong(value));
+                    case "--seed" -> generator.setSeed(Long.parseLong(value));
+                    case "--format" -> format = value.toLowerCase(Locale.ROOT);
+                    case "--out" -> out = value;
+                    case "--health-archive" -> health = value;
+                    case "--enclosure-capacity" -> generator.setEnclosureCapacity(Integer.parseInt(value));
+                    case "--names" -> generator.setNamePoolSize(Integer.parseInt(value));
+                    case "--name-skew" -> generator.setNameSkew(Double.parseDouble(value));
+                    case "--history-mean" -> generator.setMeanHistoryEntries(Double.parseDouble(value));
+                    case "--history-days" -> generator.setHistoryDays(Integer.parseInt(value));
+                    case "--today" -> generator.setToday(LocalDate.parse(value));
+                    // e.g. --types Lion=3,Penguin=1 or --health HEALTHY=90,SICK=10
+                    case "--types" -> parseWeights(value, generator::setTypeWeight);
+                    case "--health" -> parseWeights(value, (status, weight) ->
+                            generator.setHealthWeight(Animal.HealthStatus.valueOf(status.trim().toUpperCase(Locale.ROOT)), weight));
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i - 1]);
+                }
+            }
+            if (out == null) throw new IllegalArgumentException("--out is required");
+            if (!format.equals("csv") && !format.equals("snapshot")) throw new IllegalArgumentException("--format must be csv or snapshot");
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: zoo.ZooDataGenerator --out <file> [--format csv|snapshot] [--animals n] [--seed n]"
+                    + " [--types Type=weight,...] [--health STATUS=weight,...] [--names n] [--name-skew s]"
+                    + " [--history-mean n] [--history-days n] [--health-archive <dir>] [--today yyyy-mm-dd]");
+            System.exit(2);
+            return;
+        }
+
+        // A snapshot's history goes where ZooPersistence will look for it
+        if (health == null && format.equals("snapshot")) health = out + ".health";
+
+        long start = System.nanoTime();
+        int enclosures = format.equals("csv")
+                ? generator.writeCsv(Paths.get(out))
+                : generator.writeSnapshot(Paths.get(out));
+        System.out.printf("Wrote %d animals and %d enclosures to %s in %d ms%n", generator.animalCount,
+                enclosures, out, (System.nanoTime() - start) / 1_000_000);
+        if (health != null) {
+            start = System.nanoTime();
+            long entries = generator.writeHealthArchive(Paths.get(health));
+            System.out.printf("Wrote %d medical entries to %s in %d ms%n", entries, health, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private interface WeightSetter {
+        void set(String key, int weight);
+    }
+
+    private static void parseWeights(String spec, WeightSetter setter) {
+        for (String part : spec.split(",")) {
+            String[] keyValue = part.split("=");
+            if (keyValue.length != 2) throw new IllegalArgumentException("Expected key=weight but got " + part);
+            setter.set(keyValue[0], Integer.parseInt(keyValue[1].trim()));
+        }
+    }
+}
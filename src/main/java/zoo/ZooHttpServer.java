@@ -0,0 +1,588 @@
+package zoo;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// A small HTTP/JSON API over a Zoo, for programs that need it while other
+// clients use it too. Each request runs on its own virtual thread; Zoo is
+// already safe to share. Large listings are streamed as they are written
+// rather than built in memory first. Writes take form-encoded parameters
+// (in the query string or an application/x-www-form-urlencoded body).
+//
+//   GET    /animals[?name=|prefix=][&offset=&limit=]
+//   POST   /animals                      type, name, age[, id][, enclosure]
+//   GET    /animals/{id}
+//   DELETE /animals/{id}
+//   PUT    /animals/{id}/health-status   status
+//   GET    /animals/{id}/health[?from=&to=]
+//   POST   /animals/{id}/health          description, veterinarian, treatment[, date]
+//   GET    /enclosures
+//   POST   /enclosures                   id, habitat, capacity
+//   GET    /enclosures/{id}
+//   GET    /health-entries?from=&to=
+//   GET    /statistics
+//   GET    /metrics                      plain-text ZooMetrics report
+//
+// Every route has a ZooMetrics timer named after it, e.g. "HTTP GET /animals/{id}".
+//
+// The JDK server writes headers and body separately; without TCP_NODELAY small
+// responses wait on the client's delayed ACK (~40ms each). main turns it on;
+// embedders should launch with -Dsun.net.httpserver.nodelay=true, as the JDK
+// reads it once, when the first server is created.
+public class ZooHttpServer implements Closeable {
+    private static final int BACKLOG = 1024;
+    private static final int STREAM_BUFFER = 64 * 1024;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final Zoo zoo;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Route> routes = new ArrayList<>();
+
+    public ZooHttpServer(Zoo zoo, InetSocketAddress address) throws IOException {
+        this.zoo = Objects.requireNonNull(zoo);
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/", this::dispatch);
+
+        route("GET", "/animals", this::listAnimals);
+        route("POST", "/animals", this::addAnimal);
+        route("GET", "/animals/{id}", this::getAnimal);
+        route("DELETE", "/animals/{id}", this::removeAnimal);
+        route("PUT", "/animals/{id}/health-status", this::setHealthStatus);
+        route("GET", "/animals/{id}/health", this::getHealthRecord);
+        route("POST", "/animals/{id}/health", this::addHealthEntry);
+        route("GET", "/enclosures", this::listEnclosures);
+        route("POST", "/enclosures", this::addEnclosure);
+        route("GET", "/enclosures/{id}", this::getEnclosure);
+        route("GET", "/health-entries", this::listHealthEntries);
+        route("GET", "/statistics", this::getStatistics);
+        route("GET", "/metrics", this::getMetrics);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    // --- Handlers ---
+
+    private void listAnimals(Request request) throws IOException {
+        String name = request.param("name");
+        String prefix = request.param("prefix");
+        List<Animal> animals = name != null ? zoo.getByName(name)
+                : prefix != null ? zoo.getByNamePrefix(prefix)
+                : zoo.listSortedByType();
+        int offset = request.intParam("offset", 0);
+        int limit = request.intParam("limit", Integer.MAX_VALUE);
+        if (offset < 0 || limit < 0) throw new IllegalArgumentException("offset and limit cannot be negative");
+        int from = Math.min(offset, animals.size());
+        int to = (int) Math.min(animals.size(), (long) from + limit);
+
+        try (JsonStream out = request.stream(200)) {
+            out.raw("{\"total\":").number(animals.size()).raw(",\"animals\":[");
+            for (int i = from; i < to; i++) {
+                if (i > from) out.raw(",");
+                animal(out, animals.get(i));
+            }
+            out.raw("]}");
+        }
+    }
+
+    private void addAnimal(Request request) throws IOException {
+        String id = request.param("id");
+        id = id == null || id.isBlank() ? zoo.nextAnimalId() : AnimalIdGenerator.requireUserId(id);
+        Animal animal = AnimalFactory.createAnimal(request.required("type"), id, request.required("name"),
+                request.requiredInt("age"));
+        if (!zoo.addAnimal(animal, request.param("enclosure"))) {
+            request.error(409, "An animal with ID " + id + " already exists");
+            return;
+        }
+        JsonStream out = new JsonStream();
+        animal(out, animal);
+        request.send(201, out);
+    }
+
+    private void getAnimal(Request request) throws IOException {
+        Animal animal = zoo.getById(request.path("id"));
+        if (animal == null) {
+            request.error(404, "No animal with ID " + request.path("id"));
+            return;
+        }
+        JsonStream out = new JsonStream();
+        animal(out, animal);
+        request.send(200, out);
+    }
+
+    private void removeAnimal(Request request) throws IOException {
+        Animal removed = zoo.removeById(request.path("id"));
+        if (removed == null) {
+            request.error(404, "No animal with ID " + request.path("id"));
+            return;
+        }
+        request.noContent();
+    }
+
+    private void setHealthStatus(Request request) throws IOException {
+        Animal.HealthStatus status = Animal.HealthStatus.valueOf(request.required("status").toUpperCase(Locale.ROOT));
+        if (!zoo.updateHealthStatus(request.path("id"), status)) {
+            request.error(404, "No animal with ID " + request.path("id"));
+            return;
+        }
+        request.noContent();
+    }
+
+    private void getHealthRecord(Request request) throws IOException {
+        HealthRecord record = zoo.getHealthRecord(request.path("id"));
+        if (record == null) {
+            request.error(404, "No animal with ID " + request.path("id"));
+            return;
+        }
+        String from = request.param("from");
+        String to = request.param("to");
+        List<HealthRecord.MedicalEntry> entries = from == null && to == null ? record.getEntries()
+                : record.getEntriesBetween(from == null ? LocalDate.MIN : LocalDate.parse(from),
+                                           to == null ? LocalDate.MAX : LocalDate.parse(to));
+
+        try (JsonStream out = request.stream(200)) {
+            out.raw("{\"animalId\":").string(request.path("id")).raw(",\"entries\":[");
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0) out.raw(",");
+                entry(out, entries.get(i));
+            }
+            out.raw("]}");
+        }
+    }
+
+    private void addHealthEntry(Request request) throws IOException {
+        String id = request.path("id");
+        if (zoo.getById(id) == null) {
+            request.error(404, "No animal with ID " + id);
+            return;
+        }
+        String date = request.param("date");
+        HealthRecord.MedicalEntry entry = new HealthRecord.MedicalEntry(
+                date == null ? LocalDate.now() : LocalDate.parse(date), request.required("description"),
+                request.required("veterinarian"), request.required("treatment"));
+        zoo.addHealthEntry(id, entry);
+        JsonStream out = new JsonStream();
+        entry(out, entry);
+        request.send(201, out);
+    }
+
+    private void listEnclosures(Request request) throws IOException {
+        List<Enclosure> enclosures = zoo.getEnclosures();
+        try (JsonStream out = request.stream(200)) {
+            out.raw("[");
+            for (int i = 0; i < enclosures.size(); i++) {
+                if (i > 0) out.raw(",");
+                enclosure(out, enclosures.get(i));
+            }
+            out.raw("]");
+        }
+    }
+
+    private void addEnclosure(Request request) throws IOException {
+        Enclosure enclosure = new Enclosure(request.required("id"), request.required("habitat"),
+                request.requiredInt("capacity"));
+        if (!zoo.addEnclosure(enclosure)) {
+            request.error(409, "An enclosure with ID " + enclosure.getId() + " already exists");
+            return;
+        }
+        JsonStream out = new JsonStream();
+        enclosure(out, enclosure);
+        request.send(201, out);
+    }
+
+    private void getEnclosure(Request request) throws IOException {
+        Enclosure enclosure = zoo.getEnclosure(request.path("id"));
+        if (enclosure == null) {
+            request.error(404, "No enclosure with ID " + request.path("id"));
+            return;
+        }
+        List<Animal> animals = enclosure.getAnimals();
+        try (JsonStream out = request.stream(200)) {
+            out.raw("{\"enclosure\":");
+            enclosure(out, enclosure);
+            out.raw(",\"animalIds\":[");
+            for (int i = 0; i < animals.size(); i++) {
+                if (i > 0) out.raw(",");
+                out.string(animals.get(i).getId());
+            }
+            out.raw("]}");
+        }
+    }
+
+    private void listHealthEntries(Request request) throws IOException {
+        LocalDate from = LocalDate.parse(request.required("from"));
+        LocalDate to = LocalDate.parse(request.required("to"));
+        List<HealthTimeline.AnimalEntry> entries = zoo.getHealthEntriesBetween(from, to);
+        try (JsonStream out = request.stream(200)) {
+            out.raw("[");
+            for (int i = 0; i < entries.size(); i++) {
+                if (i > 0) out.raw(",");
+                out.raw("{\"animalId\":").string(entries.get(i).getAnimalId()).raw(",\"entry\":");
+                entry(out, entries.get(i).getEntry());
+                out.raw("}");
+            }
+            out.raw("]");
+        }
+    }
+
+    private void getStatistics(Request request) throws IOException {
+        ZooStatistics.Snapshot stats = zoo.getStatistics();
+        JsonStream out = new JsonStream();
+        out.raw("{\"totalAnimals\":").number(stats.getTotalAnimals());
+        out.raw(",\"byType\":");
+        counts(out, stats.getCountByType());
+        out.raw(",\"byHabitat\":");
+        counts(out, stats.getCountByHabitat());
+        out.raw(",\"byHealth\":");
+        counts(out, stats.getCountByHealth());
+        out.raw(",\"enclosures\":").number(stats.getEnclosureCount())
+                .raw(",\"enclosureCapacity\":").number(stats.getEnclosureCapacity())
+                .raw(",\"housedAnimals\":").number(stats.getHousedAnimals())
+                .raw(",\"unhousedAnimals\":").number(stats.getUnhousedAnimals())
+                .raw(",\"needingMedicalAttention\":").number(stats.getNeedingMedicalAttention()).raw("}");
+        request.send(200, out);
+    }
+
+    private void getMetrics(Request request) throws IOException {
+        StringWriter report = new StringWriter();
+        ZooMetrics.writeReport(report);
+        request.send(200, "text/plain; charset=utf-8", report.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // --- JSON shapes ---
+
+    private void animal(JsonStream out, Animal animal) throws IOException {
+        Enclosure enclosure = zoo.getEnclosureOf(animal.getId());
+        out.raw("{\"id\":").string(animal.getId())
+                .raw(",\"type\":").string(animal.getType())
+                .raw(",\"name\":").string(animal.getName())
+                .raw(",\"age\":").number(animal.getAge())
+                .raw(",\"species\":").string(animal.getSpecies())
+                .raw(",\"diet\":").string(animal.getDiet())
+                .raw(",\"habitat\":").string(animal.getHabitatType())
+                .raw(",\"health\":").string(animal.getHealthStatus().name())
+                .raw(",\"arrivalDate\":").string(animal.getArrivalDate().toString())
+                .raw(",\"enclosure\":").string(enclosure == null ? null : enclosure.getId()).raw("}");
+    }
+
+    private static void enclosure(JsonStream out, Enclosure enclosure) throws IOException {
+        out.raw("{\"id\":").string(enclosure.getId())
+                .raw(",\"habitat\":").string(enclosure.getHabitatType())
+                .raw(",\"capacity\":").number(enclosure.getCapacity())
+                .raw(",\"occupancy\":").number(enclosure.getCurrentOccupancy()).raw("}");
+    }
+
+    private static void entry(JsonStream out, HealthRecord.MedicalEntry entry) throws IOException {
+        out.raw("{\"date\":").string(entry.getDate().toString())
+                .raw(",\"description\":").string(entry.getDescription())
+                .raw(",\"veterinarian\":").string(entry.getVeterinarian())
+                .raw(",\"treatment\":").string(entry.getTreatment()).raw("}");
+    }
+
+    private static void counts(JsonStream out, Map<?, Long> counts) throws IOException {
+        out.raw("{");
+        boolean first = true;
+        for (Map.Entry<?, Long> count : counts.entrySet()) {
+            if (!first) out.raw(",");
+            first = false;
+            out.string(count.getKey().toString()).raw(":").number(count.getValue());
+        }
+        out.raw("}");
+    }
+
+    // --- Routing ---
+
+    private interface Handler {
+        void handle(Request request) throws IOException;
+    }
+
+    private static final class Route {
+        final String method;
+        final String[] segments;
+        final Handler handler;
+        final ZooMetrics.Timer timer;
+
+        Route(String method, String pattern, Handler handler) {
+            this.method = method;
+            this.segments = split(pattern);
+            this.handler = handler;
+            this.timer = ZooMetrics.timer("HTTP " + method + " " + pattern);
+        }
+
+        // Path parameters by name, or null if the path does not fit
+        Map<String, String> match(String[] path) {
+            if (path.length != segments.length) return null;
+            Map<String, String> params = null;
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].startsWith("{")) {
+                    if (params == null) params = new HashMap<>(4);
+                    params.put(segments[i].substring(1, segments[i].length() - 1), path[i]);
+                } else if (!segments[i].equals(path[i])) {
+                    return null;
+                }
+            }
+            return params == null ? Map.of() : params;
+        }
+    }
+
+    private void route(String method, String pattern, Handler handler) {
+        routes.add(new Route(method, pattern, handler));
+    }
+
+    private void dispatch(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = split(exchange.getRequestURI().getRawPath());
+            for (int i = 0; i < path.length; i++) path[i] = decode(path[i]);
+
+            boolean pathKnown = false;
+            for (Route route : routes) {
+                Map<String, String> params = route.match(path);
+                if (params == null) continue;
+                pathKnown = true;
+                if (!route.method.equals(exchange.getRequestMethod())) continue;
+
+                long start = ZooMetrics.start();
+                Request request = new Request(exchange, params);
+                try {
+                    route.handler.handle(request);
+                } catch (IllegalArgumentException | java.time.DateTimeException e) {
+                    if (!request.responded) request.error(400, e.getMessage());
+                } catch (RuntimeException e) {
+                    // Details stay in the server's log, not in the response
+                    System.err.println("Error handling " + exchange.getRequestMethod() + " "
+                            + exchange.getRequestURI().getRawPath() + ":");
+                    e.printStackTrace();
+                    if (!request.responded) request.error(500, "Internal server error");
+                } finally {
+                    route.timer.record(start);
+                }
+                return;
+            }
+            new Request(exchange, Map.of()).error(pathKnown ? 405 : 404,
+                    pathKnown ? "Method not allowed" : "No such resource");
+        }
+    }
+
+    private static String[] split(String path) {
+        String trimmed = path.replaceAll("^/+|/+$", "");
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/+");
+    }
+
+    private static String decode(String text) {
+        return URLDecoder.decode(text, StandardCharsets.UTF_8);
+    }
+
+    // One exchange, with its path, query and form parameters
+    private static final class Request {
+        private final HttpExchange exchange;
+        private final Map<String, String> pathParams;
+        private Map<String, String> params;
+        boolean responded;
+
+        Request(HttpExchange exchange, Map<String, String> pathParams) {
+            this.exchange = exchange;
+            this.pathParams = pathParams;
+        }
+
+        String path(String name) {
+            return pathParams.get(name);
+        }
+
+        // Query string and form body together; the body wins on conflicts
+        String param(String name) throws IOException {
+            if (params == null) {
+                params = new HashMap<>();
+                parseForm(exchange.getRequestURI().getRawQuery(), params);
+                String type = exchange.getRequestHeaders().getFirst("Content-Type");
+                if (type != null && type.startsWith("application/x-www-form-urlencoded")) {
+                    parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8), params);
+                }
+            }
+            return params.get(name);
+        }
+
+        String required(String name) throws IOException {
+            String value = param(name);
+            if (value == null || value.isBlank()) throw new IllegalArgumentException("Missing parameter: " + name);
+            return value;
+        }
+
+        int intParam(String name, int defaultValue) throws IOException {
+            String value = param(name);
+            return value == null || value.isBlank() ? defaultValue : parseInt(name, value);
+        }
+
+        int requiredInt(String name) throws IOException {
+            return parseInt(name, required(name));
+        }
+
+        private static int parseInt(String name, String value) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a whole number");
+            }
+        }
+
+        // A chunked JSON response, written as it is produced
+        JsonStream stream(int status) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            exchange.sendResponseHeaders(status, 0);
+            responded = true;
+            return new JsonStream(new BufferedWriter(
+                    new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), STREAM_BUFFER));
+        }
+
+        void send(int status, JsonStream json) throws IOException {
+            send(status, JSON, json.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        void send(int status, String contentType, byte[] body) throws IOException {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+            responded = true;
+            if (body.length > 0) exchange.getResponseBody().write(body);
+        }
+
+        void noContent() throws IOException {
+            exchange.sendResponseHeaders(204, -1);
+            responded = true;
+        }
+
+        void error(int status, String message) throws IOException {
+            JsonStream out = new JsonStream();
+            out.raw("{\"error\":").string(message).raw("}");
+            send(status, out);
+        }
+
+        private static void parseForm(String form, Map<String, String> into) {
+            if (form == null || form.isEmpty()) return;
+            for (String pair : form.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals < 0) into.put(decode(pair), "");
+                else into.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+            }
+        }
+    }
+
+    // Writes JSON either to a StringBuilder or straight to a response stream
+    private static final class JsonStream implements Closeable {
+        private final StringBuilder builder;
+        private final Writer writer;
+
+        JsonStream() {
+            this.builder = new StringBuilder(256);
+            this.writer = null;
+        }
+
+        JsonStream(Writer writer) {
+            this.builder = null;
+            this.writer = writer;
+        }
+
+        JsonStream raw(String text) throws IOException {
+            if (writer != null) writer.write(text);
+            else builder.append(text);
+            return this;
+        }
+
+        JsonStream number(long value) throws IOException {
+            return raw(Long.toString(value));
+        }
+
+        JsonStream string(String value) throws IOException {
+            if (value == null) return raw("null");
+            raw("\"");
+            int start = 0;
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\') continue;
+                raw(value.substring(start, i));
+                raw(switch (c) {
+                    case '"' -> "\\\"";
+                    case '\\' -> "\\\\";
+                    case '\n' -> "\\n";
+                    case '\r' -> "\\r";
+                    case '\t' -> "\\t";
+                    default -> String.format("\\u%04x", (int) c);
+                });
+                start = i + 1;
+            }
+            raw(value.substring(start));
+            return raw("\"");
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (writer != null) writer.close();
+        }
+    }
+
+    // Usage: zoo.ZooHttpServer [--port n] [--host address] [--snapshot zoo_data.snap] [--csv zoo_data.csv]
+    // Serves the saved zoo, journaling changes as the console app does, until
+    // stopped. The API has no authentication, so it listens on the loopback
+    // address only unless --host names another.
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        int port = 8080;
+        String host = null;
+        String snapshot = "zoo_data.snap";
+        String csv = "zoo_data.csv";
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--port" -> port = Integer.parseInt(args[i + 1]);
+                case "--host" -> host = args[i + 1];
+                case "--snapshot" -> snapshot = args[i + 1];
+                case "--csv" -> csv = args[i + 1];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        Zoo zoo = new Zoo();
+        ZooPersistence persistence = new ZooPersistence(snapshot);
+        LoadReport report = persistence.open(zoo, csv);
+        ZooHttpServer server = new ZooHttpServer(zoo, new InetSocketAddress(
+                host == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(host), port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            try {
+                persistence.close();
+            } catch (IOException e) {
+                System.err.println("Error saving data: " + e.getMessage());
+            }
+        }));
+        server.start();
+        System.out.println("Serving " + zoo.size() + " animals on port " + server.getPort()
+                + (report.getMalformedCount() > 0 ? " (" + report.getMalformedCount() + " malformed entries skipped)" : ""));
+    }
+}
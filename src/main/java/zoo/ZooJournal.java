@@ -0,0 +1,478 @@
+package zoo;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Append-only write-ahead log of zoo mutations.
+//
+// Each record is framed as [int length][int crc32c][long sequence][op][fields].
+// Appends are queued in memory and a single flusher thread writes and fsyncs
+// whatever has accumulated, so concurrent or back-to-back mutations share one
+// fsync (group commit). An append never waits for the disk; a thread that
+// needs its records durable calls awaitAppended() once it has made them, which
+// lets a caller append while holding locks and wait after releasing them. The log is split into numbered segment files
+// "<base>.journal.<n>"; segments are rotated on compaction and deleted once a
+// snapshot covers every record in them.
+//
+// Callers may be virtual threads (ZooHttpServer runs each request on one), so
+// waiting and file I/O happen under ReentrantLocks rather than monitors, which
+// would pin the carrier thread for the length of an fsync.
+public class ZooJournal implements ZooListener, Closeable {
+    private static final byte ADD_ANIMAL = 1;
+    private static final byte REMOVE_ANIMAL = 2;
+    private static final byte ADD_ENCLOSURE = 3;
+    private static final byte HEALTH_ENTRY = 4;
+    private static final byte HEALTH_STATUS = 5;
+    private static final byte ADD_ANIMAL_IN_ENCLOSURE = 6;
+    // ADD_ANIMAL_IN_ENCLOSURE followed by the arrival day
+    private static final byte ADD_ARRIVED_ANIMAL = 7;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int MIN_RECORD_SIZE = 9;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+    private static final String SEGMENT_INFIX = ".journal.";
+
+    private final Path basePath;
+    private final long commitWindowMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Signalled when records are queued or the journal closes; the flusher waits on it
+    private final Condition queued = lock.newCondition();
+    // Signalled when a batch reaches the disk or the journal fails
+    private final Condition flushed = lock.newCondition();
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private final Thread flusher;
+    // The last sequence number each thread appended
+    private final ThreadLocal<long[]> appended = ThreadLocal.withInitial(() -> new long[1]);
+    // Highest sequence number written to each segment that is no longer appended to
+    private final TreeMap<Integer, Long> closedSegments = new TreeMap<>();
+
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private int pendingRecords;
+    // Records in the last batch written; only batches after a shared one wait
+    // out the commit window, so a lone writer is not slowed down
+    private int lastBatchRecords;
+    private long lastSequence;
+    private long durableSequence;
+    private int segment;
+    private FileChannel channel;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    // Opens a new segment after any existing ones; replay() must already have run
+    public ZooJournal(Path basePath, long lastSequence, long commitWindowMillis) throws IOException {
+        this.basePath = basePath;
+        this.commitWindowMillis = commitWindowMillis;
+        this.lastSequence = lastSequence;
+        this.durableSequence = lastSequence;
+
+        for (int existing : listSegments(basePath)) {
+            closedSegments.put(existing, lastSequence);
+        }
+        this.segment = closedSegments.isEmpty() ? 1 : closedSegments.lastKey() + 1;
+        this.channel = openSegment(segment);
+
+        this.flusher = new Thread(this::flushLoop, "zoo-journal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    // The sequence number of the last record the calling thread appended
+    public long getAppendedSequence() {
+        return appended.get()[0];
+    }
+
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return lastSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void animalAdded(Animal animal, Enclosure enclosure) {
+        append(ADD_ARRIVED_ANIMAL, out -> {
+            out.writeUTF(animal.getType());
+            out.writeUTF(animal.getId());
+            out.writeUTF(animal.getName());
+            out.writeInt(animal.getAge());
+            out.writeByte(animal.getHealthStatus().ordinal());
+            out.writeUTF(enclosure == null ? "" : enclosure.getId());
+            out.writeInt(animal.getArrivalDay());
+        });
+    }
+
+    @Override
+    public void animalRemoved(Animal animal) {
+        append(REMOVE_ANIMAL, out -> out.writeUTF(animal.getId()));
+    }
+
+    @Override
+    public void enclosureAdded(Enclosure enclosure) {
+        append(ADD_ENCLOSURE, out -> {
+            out.writeUTF(enclosure.getId());
+            out.writeUTF(enclosure.getHabitatType());
+            out.writeInt(enclosure.getCapacity());
+        });
+    }
+
+    @Override
+    public void healthEntryAdded(String animalId, HealthRecord.MedicalEntry entry) {
+        append(HEALTH_ENTRY, out -> {
+            out.writeUTF(animalId);
+            out.writeLong(entry.getDate().toEpochDay());
+            out.writeUTF(entry.getDescription());
+            out.writeUTF(entry.getVeterinarian());
+            out.writeUTF(entry.getTreatment());
+        });
+    }
+
+    @Override
+    public void healthStatusChanged(Animal animal, Animal.HealthStatus previous) {
+        append(HEALTH_STATUS, out -> {
+            out.writeUTF(animal.getId());
+            out.writeByte(animal.getHealthStatus().ordinal());
+        });
+    }
+
+    // Throws if an earlier write failed; appends would throw too, but only after
+    // the caller had applied its change
+    public void checkWritable() {
+        if (closed) throw new IllegalStateException("Journal is closed");
+        IOException failure = this.failure;
+        if (failure != null) throw new UncheckedIOException("Journal write failed", failure);
+    }
+
+    // Blocks until every record the calling thread has appended is on disk
+    public void awaitAppended() throws IOException {
+        long target = appended.get()[0];
+        lock.lock();
+        try {
+            if (durableSequence < target) awaitDurable(target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Blocks until every record appended so far is on disk
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            long target = lastSequence;
+            queued.signal();
+            awaitDurable(target);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Starts a new segment and returns the last sequence number in the previous one
+    public long rotate() throws IOException {
+        ioLock.lock();
+        try {
+            long last = flushPending();
+            channel.close();
+            closedSegments.put(segment, last);
+            segment++;
+            channel = openSegment(segment);
+            return last;
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    // Deletes closed segments whose records are all at or below the given sequence
+    public void deleteSegmentsUpTo(long sequence) throws IOException {
+        ioLock.lock();
+        try {
+            var iterator = closedSegments.entrySet().iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                if (entry.getValue() <= sequence) {
+                    Files.deleteIfExists(segmentPath(basePath, entry.getKey()));
+                    iterator.remove();
+                }
+            }
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ioLock.lock();
+        try {
+            boolean empty = channel.size() == 0;
+            channel.close();
+            if (empty) Files.deleteIfExists(segmentPath(basePath, segment));
+        } finally {
+            ioLock.unlock();
+        }
+        if (failure != null) throw failure;
+    }
+
+    // Applies every intact record with a sequence above afterSequence, segment by
+    // segment, and returns the highest sequence seen. A torn or corrupt record ends
+    // its segment: it can only be the tail of a write that never completed. An
+    // intact record this version cannot read (say, from a newer one) stops the
+    // replay with an error naming where it is, rather than dropping the rest.
+    // Replayed removals are recorded in the archive, if given, unless it has them.
+    // A record the zoo rejects (say, an add whose type fails to parse) is skipped,
+    // as the CSV loader skips a bad row, but logged and counted in the report.
+    public static long replay(Path basePath, long afterSequence, Zoo zoo, HealthArchive archive,
+                              LoadReport report) throws IOException {
+        long last = afterSequence;
+        for (int segment : listSegments(basePath)) {
+            Path path = segmentPath(basePath, segment);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ChannelInput in = new ChannelInput(channel);
+                long offset = 0;
+                while (!in.isExhausted()) {
+                    long recordOffset = offset;
+                    byte[] record;
+                    try {
+                        int length = in.readInt();
+                        int checksum = in.readInt();
+                        if (length < MIN_RECORD_SIZE || length > MAX_RECORD_SIZE) break;
+                        record = in.readBytes(length);
+                        CRC32C crc = new CRC32C();
+                        crc.update(record);
+                        if ((int) crc.getValue() != checksum) break;
+                        offset += HEADER_SIZE + length;
+                    } catch (EOFException e) {
+                        break;
+                    }
+
+                    DataInputStream data = new DataInputStream(new ByteArrayInputStream(record));
+                    long sequence = data.readLong();
+                    if (sequence > afterSequence) {
+                        try {
+                            apply(data, sequence, zoo, archive);
+                        } catch (RuntimeException e) {
+                            String where = path + " at offset " + recordOffset;
+                            String reason = e.getMessage() == null ? e.toString() : e.getMessage();
+                            System.err.println("Skipped journal record " + sequence + " in " + where + ": " + reason);
+                            report.journalRecordSkipped(sequence, where, reason);
+                        } catch (IOException e) {
+                            throw new IOException("Cannot replay journal record " + sequence + " in " + path
+                                    + " at offset " + recordOffset + ": " + e.getMessage(), e);
+                        }
+                    }
+                    last = Math.max(last, sequence);
+                }
+            }
+        }
+        return last;
+    }
+
+    private static void apply(DataInputStream in, long sequence, Zoo zoo, HealthArchive archive) throws IOException {
+        byte op = in.readByte();
+        switch (op) {
+            case ADD_ANIMAL, ADD_ANIMAL_IN_ENCLOSURE, ADD_ARRIVED_ANIMAL -> {
+                Animal animal = AnimalFactory.createAnimal(in.readUTF(), in.readUTF(), in.readUTF(), in.readInt());
+                animal.setHealthStatus(Animal.HealthStatus.values()[in.readByte()]);
+                String enclosureId = op == ADD_ANIMAL ? "" : in.readUTF();
+                if (op == ADD_ARRIVED_ANIMAL) animal.setArrivalDay(in.readInt());
+                zoo.addAnimal(animal, enclosureId.isEmpty() ? null : enclosureId);
+            }
+            case REMOVE_ANIMAL -> {
+                Animal removed = zoo.removeById(in.readUTF());
+                if (removed != null && archive != null) archive.animalRemoved(AnimalIdMap.normalize(removed.getId()), sequence);
+            }
+            case ADD_ENCLOSURE -> zoo.addEnclosure(new Enclosure(in.readUTF(), in.readUTF(), in.readInt()));
+            case HEALTH_ENTRY -> {
+                String animalId = in.readUTF();
+                LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                zoo.addHealthEntry(animalId, new HealthRecord.MedicalEntry(date, in.readUTF(), in.readUTF(), in.readUTF()));
+            }
+            case HEALTH_STATUS -> zoo.updateHealthStatus(in.readUTF(), Animal.HealthStatus.values()[in.readByte()]);
+            default -> throw new IOException("Unknown journal operation " + op);
+        }
+    }
+
+    private interface RecordBody {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(byte op, RecordBody body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeLong(0); // sequence, filled in once assigned
+            out.writeByte(op);
+            body.write(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] record = bytes.toByteArray();
+
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Journal is closed");
+            if (failure != null) throw new UncheckedIOException("Journal write failed", failure);
+
+            long sequence = ++lastSequence;
+            appended.get()[0] = sequence;
+            ByteBuffer.wrap(record).putLong(0, sequence);
+            CRC32C crc = new CRC32C();
+            crc.update(record);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(record.length).putInt((int) crc.getValue());
+            pending.write(header.array(), 0, HEADER_SIZE);
+            pending.write(record, 0, record.length);
+            pendingRecords++;
+            queued.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caller holds lock
+    private void awaitDurable(long sequence) throws IOException {
+        boolean interrupted = false;
+        while (durableSequence < sequence && failure == null) {
+            try {
+                flushed.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        if (failure != null) throw failure;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            boolean shared;
+            lock.lock();
+            try {
+                while (pending.size() == 0 && !closed) {
+                    try {
+                        queued.await();
+                    } catch (InterruptedException e) {
+                        // Keep draining until close() says otherwise
+                    }
+                }
+                if (pending.size() == 0) return;
+                shared = lastBatchRecords > 1;
+            } finally {
+                lock.unlock();
+            }
+
+            if (commitWindowMillis > 0 && shared) {
+                // Give other appenders a moment to join this batch
+                try {
+                    Thread.sleep(commitWindowMillis);
+                } catch (InterruptedException ignored) {
+                    // Flush what we have
+                }
+            }
+
+            ioLock.lock();
+            try {
+                flushPending();
+            } catch (IOException e) {
+                return;
+            } finally {
+                ioLock.unlock();
+            }
+        }
+    }
+
+    // Writes and fsyncs everything queued so far and returns the last sequence it
+    // covers. Caller holds ioLock, so only one batch is ever in flight.
+    private long flushPending() throws IOException {
+        ByteArrayOutputStream batch;
+        long upTo;
+        lock.lock();
+        try {
+            if (failure != null) throw failure;
+            batch = pending;
+            pending = new ByteArrayOutputStream(Math.max(256, batch.size()));
+            lastBatchRecords = pendingRecords;
+            pendingRecords = 0;
+            upTo = lastSequence;
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            if (batch.size() > 0) {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                while (buffer.hasRemaining()) channel.write(buffer);
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            lock.lock();
+            try {
+                failure = e;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+
+        lock.lock();
+        try {
+            durableSequence = upTo;
+            flushed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return upTo;
+    }
+
+    private FileChannel openSegment(int number) throws IOException {
+        return FileChannel.open(segmentPath(basePath, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static Path segmentPath(Path basePath, int number) {
+        return basePath.resolveSibling(basePath.getFileName() + SEGMENT_INFIX + String.format("%06d", number));
+    }
+
+    private static List<Integer> listSegments(Path basePath) throws IOException {
+        Path directory = basePath.toAbsolutePath().getParent();
+        String prefix = basePath.getFileName() + SEGMENT_INFIX;
+        List<Integer> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix))
+                    .forEach(name -> {
+                        try {
+                            segments.add(Integer.parseInt(name.substring(prefix.length())));
+                        } catch (NumberFormatException ignored) {
+                            // Not one of ours
+                        }
+                    });
+        }
+        segments.sort(null);
+        return segments;
+    }
+}
@@ -0,0 +1,25 @@
+package zoo;
+
+// Receives every change made through Zoo, after it has been applied.
+public interface ZooListener {
+    // Called with the change's locks held, before it is applied; throwing
+    // rejects the change, e.g. when it could no longer be saved
+    default void beforeChange() {}
+
+    // enclosure is where the animal was placed, or null if none had room
+    default void animalAdded(Animal animal, Enclosure enclosure) {}
+    default void animalRemoved(Animal animal) {}
+    default void enclosureAdded(Enclosure enclosure) {}
+    default void healthEntryAdded(String animalId, HealthRecord.MedicalEntry entry) {}
+    default void healthStatusChanged(Animal animal, Animal.HealthStatus previous) {}
+
+    // Called with the animal's lock held, before a medical entry is written
+    // straight to the health archive; may block until the animal's own changes
+    // are durable, so no entry outlives the add it belongs to
+    default void beforeArchiveAppend(String animalId) {}
+
+    // Called on the thread that made a change, once Zoo has released its locks,
+    // so it may block, e.g. until the change is durable. Also called when the
+    // attempt changed nothing; a bulk change calls it once.
+    default void changeReleased() {}
+}
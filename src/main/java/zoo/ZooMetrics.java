@@ -0,0 +1,208 @@
+package zoo;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide call counts and latency histograms for the zoo's hot paths.
+// Off by default (or on with -Dzoo.metrics=true); while off, start() is one
+// volatile read and record() returns straight away. Instrumented code reads:
+//
+//   long start = ZooMetrics.start();
+//   try { ... } finally { ZooMetrics.ADD_ANIMAL.record(start); }
+public final class ZooMetrics {
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    public static final Timer ADD_ANIMAL = new Timer("Zoo.addAnimal");
+    public static final Timer REMOVE_ANIMAL = new Timer("Zoo.removeById");
+    public static final Timer ADD_ALL = new Timer("Zoo.addAll");
+    public static final Timer REMOVE_ALL = new Timer("Zoo.removeAll");
+    public static final Timer GET_BY_NAME = new Timer("Zoo.getByName");
+    public static final Timer QUERY = new Timer("ZooQuery");
+    public static final Timer ASSIGN_ENCLOSURE = new Timer("Zoo.assignToEnclosure");
+    public static final Timer CSV_LOAD = new Timer("ZooStorage.load");
+    public static final Timer CSV_LOAD_PARALLEL = new Timer("ZooStorage.loadParallel");
+    public static final Timer CSV_SAVE = new Timer("ZooStorage.save");
+    public static final Timer SNAPSHOT_LOAD = new Timer("ZooStorage.loadSnapshot");
+    public static final Timer SNAPSHOT_SAVE = new Timer("ZooStorage.saveSnapshot");
+    public static final Timer PERSISTENCE_OPEN = new Timer("ZooPersistence.open");
+    public static final Timer COMPACTION = new Timer("ZooPersistence.compact");
+
+    public static final Counter ADDS_REJECTED = new Counter("Animals rejected as duplicates");
+    public static final Counter ANIMALS_UNHOUSED = new Counter("Animals added without an enclosure");
+    public static final Counter COMPACTIONS_FAILED = new Counter("Background compactions failed");
+
+    // The fixed timers above, then any registered with timer(name)
+    private static final List<Timer> TIMERS = new CopyOnWriteArrayList<>(List.of(ADD_ANIMAL, REMOVE_ANIMAL,
+            ADD_ALL, REMOVE_ALL, GET_BY_NAME, QUERY, ASSIGN_ENCLOSURE, CSV_LOAD, CSV_LOAD_PARALLEL, CSV_SAVE, SNAPSHOT_LOAD,
+            SNAPSHOT_SAVE, PERSISTENCE_OPEN, COMPACTION));
+    private static final List<Counter> COUNTERS = List.of(ADDS_REJECTED, ANIMALS_UNHOUSED, COMPACTIONS_FAILED);
+
+    private static volatile boolean enabled = Boolean.getBoolean("zoo.metrics");
+    private static volatile Instant since = Instant.now();
+
+    private ZooMetrics() {}
+
+    public static boolean isEnabled() { return enabled; }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static long start() {
+        return enabled ? System.nanoTime() : NOT_TIMED;
+    }
+
+    public static void reset() {
+        TIMERS.forEach(Timer::reset);
+        COUNTERS.forEach(Counter::reset);
+        since = Instant.now();
+    }
+
+    public static List<Timer> timers() { return Collections.unmodifiableList(TIMERS); }
+
+    // The timer with this name, created on first use
+    public static synchronized Timer timer(String name) {
+        for (Timer timer : TIMERS) {
+            if (timer.getName().equals(name)) return timer;
+        }
+        Timer timer = new Timer(name);
+        TIMERS.add(timer);
+        return timer;
+    }
+    public static List<Counter> counters() { return COUNTERS; }
+
+    // Latencies in microseconds; percentiles are accurate to within 1/8 of the value
+    public static void writeReport(Writer writer) {
+        PrintWriter out = new PrintWriter(writer);
+        out.printf("Zoo metrics (%s), collected since %s%n", enabled ? "enabled" : "disabled", since);
+        out.printf("%-36s %10s %10s %10s %10s %10s %10s%n", "Operation", "Calls", "Mean us", "p50 us", "p99 us", "p99.9 us", "Max us");
+        for (Timer timer : TIMERS) {
+            long count = timer.getCount();
+            if (count == 0) {
+                out.printf("%-36s %10d%n", timer.getName(), 0);
+                continue;
+            }
+            out.printf("%-36s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n", timer.getName(), count,
+                    timer.getTotalNanos() / (count * 1000.0), timer.percentile(50) / 1000.0,
+                    timer.percentile(99) / 1000.0, timer.percentile(99.9) / 1000.0, timer.getMaxNanos() / 1000.0);
+        }
+        out.println();
+        for (Counter counter : COUNTERS) {
+            out.printf("%-36s %10d%n", counter.getName(), counter.get());
+        }
+        out.flush();
+    }
+
+    public static void dump(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writeReport(out);
+        }
+    }
+
+    public static final class Counter {
+        private final String name;
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+        public long get() { return value.sum(); }
+
+        public void increment() {
+            if (enabled) value.increment();
+        }
+
+        public void add(long amount) {
+            if (enabled) value.add(amount);
+        }
+
+        void reset() {
+            value.reset();
+        }
+    }
+
+    // Counts, total and max, plus a log-linear histogram: values under 8ns get a
+    // bucket each, and every power of two above that is split into 8 buckets,
+    // so under 500 buckets cover the whole long range with no locking.
+    public static final class Timer {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+        public long getCount() { return count.sum(); }
+        public long getTotalNanos() { return totalNanos.sum(); }
+        public long getMaxNanos() { return maxNanos.get(); }
+
+        // start is what ZooMetrics.start() returned before the call
+        public void record(long start) {
+            if (start == NOT_TIMED) return;
+            long nanos = Math.max(0, System.nanoTime() - start);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            buckets.incrementAndGet(bucketOf(nanos));
+        }
+
+        // Upper bound of the bucket holding the given percentile (0-100)
+        public long percentile(double percentile) {
+            long[] counts = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) total += counts[i] = buckets.get(i);
+            if (total == 0) return 0;
+
+            long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return Math.min(upperBound(i), getMaxNanos());
+            }
+            return getMaxNanos();
+        }
+
+        void reset() {
+            count.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+            for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        }
+
+        static int bucketOf(long value) {
+            if (value < SUB_BUCKETS) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long sub = bucket % SUB_BUCKETS;
+            long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+            return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package zoo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps a zoo durable as it changes: a binary snapshot plus a journal of every
+// mutation since that snapshot. Once enough records pile up, the journal is
+// folded into a fresh snapshot on a background thread. Medical history goes to
+// a HealthArchive next to the snapshot instead. Safe to use with a zoo that
+// several threads are changing.
+//
+// Records are appended while the zoo holds the change's locks, but nothing
+// waits for the disk until the locks are released (changeReleased), so
+// concurrent changes and the animals of one addAll share an fsync.
+//
+// A removal goes to the journal before the health archive, tagged with its
+// journal sequence number. Replaying the journal records any removal the archive
+// missed, and removals the journal lost are dropped from the archive again.
+// Medical entries skip the journal, so one is only archived once every record
+// appended before it is durable: the add of its animal can't be lost after the
+// entry is kept.
+public class ZooPersistence implements ZooListener, Closeable {
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 50_000;
+    // How long the journal gathers appends before each fsync
+    private static final long COMMIT_WINDOW_MILLIS = 1;
+
+    private final Path snapshotPath;
+    private final Path healthArchivePath;
+    private final long compactionThreshold;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "zoo-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong recordsSinceCompaction = new AtomicLong();
+    private final AtomicBoolean compactionScheduled = new AtomicBoolean();
+    private volatile Zoo zoo;
+    private volatile boolean open;
+    // Null when opened without journaling; the snapshot then records the
+    // sequence number the replayed journal ended at
+    private volatile ZooJournal journal;
+    private long replayedSequence;
+    private volatile HealthArchive healthArchive;
+
+    public ZooPersistence(String snapshotPath) {
+        this(snapshotPath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public ZooPersistence(String snapshotPath, long compactionThreshold) {
+        this.snapshotPath = Paths.get(snapshotPath);
+        this.healthArchivePath = this.snapshotPath.resolveSibling(this.snapshotPath.getFileName() + ".health");
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    // Restores the last snapshot and replays the journal tail into the zoo, then
+    // starts journaling its changes. With no snapshot yet, the legacy CSV file
+    // (if given) is imported instead.
+    public LoadReport open(Zoo zoo, String legacyCsvPath) throws IOException {
+        return open(zoo, legacyCsvPath, true);
+    }
+
+    // With journaled false, no journal is kept: changes are only saved by the
+    // snapshot close() takes, and a crash before then loses them.
+    // Medical entries still go to the health archive, but without an fsync each.
+    // Meant for bulk runs where one save at the end is what's wanted.
+    public LoadReport open(Zoo zoo, String legacyCsvPath, boolean journaled) throws IOException {
+        if (open) throw new IllegalStateException("Already open");
+        long start = ZooMetrics.start();
+
+        // Older snapshots and journals carry medical history themselves
+        boolean migrateHealth = !Files.exists(healthArchivePath);
+        LoadReport report;
+        long sequence = 0;
+        if (Files.exists(snapshotPath)) {
+            try (ZooSnapshot.Reader reader = new ZooSnapshot.Reader(snapshotPath)) {
+                report = reader.readInto(zoo);
+                sequence = reader.getJournalSequence();
+            }
+        } else if (legacyCsvPath != null) {
+            report = new ZooStorage().loadParallel(legacyCsvPath, zoo);
+        } else {
+            report = new LoadReport();
+        }
+
+        if (!migrateHealth) this.healthArchive = new HealthArchive(healthArchivePath, journaled);
+        sequence = ZooJournal.replay(snapshotPath, sequence, zoo, healthArchive, report);
+        if (migrateHealth) {
+            List<HealthRecord> records = new ArrayList<>();
+            for (Animal animal : zoo.listSortedByType()) {
+                HealthRecord record = zoo.getHealthRecord(animal.getId());
+                if (record != null && record.getEntryCount() > 0) records.add(record);
+            }
+            HealthArchive.build(healthArchivePath, records);
+            this.healthArchive = new HealthArchive(healthArchivePath, journaled);
+        } else {
+            healthArchive.discardRemovalsAfter(sequence);
+        }
+        zoo.attachHealthArchive(healthArchive);
+        this.zoo = zoo;
+        this.replayedSequence = sequence;
+        if (journaled) this.journal = new ZooJournal(snapshotPath, sequence, COMMIT_WINDOW_MILLIS);
+        zoo.addListener(this);
+        this.open = true;
+        ZooMetrics.PERSISTENCE_OPEN.record(start);
+        return report;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void animalAdded(Animal animal, Enclosure enclosure) {
+        ZooJournal journal = this.journal;
+        if (journal == null) return;
+        journal.animalAdded(animal, enclosure);
+        recordAppended();
+    }
+
+    // Without a journal the removal carries no sequence number and is kept as is
+    @Override
+    public void animalRemoved(Animal animal) {
+        ZooJournal journal = this.journal;
+        long sequence = 0;
+        if (journal != null) {
+            journal.animalRemoved(animal);
+            sequence = journal.getAppendedSequence();
+            recordAppended();
+        }
+        String normalizedId = AnimalIdMap.normalize(animal.getId());
+        try {
+            healthArchive.animalRemoved(normalizedId, sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not save removal of " + normalizedId, e);
+        }
+    }
+
+    @Override
+    public void enclosureAdded(Enclosure enclosure) {
+        ZooJournal journal = this.journal;
+        if (journal == null) return;
+        journal.enclosureAdded(enclosure);
+        recordAppended();
+    }
+
+    @Override
+    public void healthStatusChanged(Animal animal, Animal.HealthStatus previous) {
+        ZooJournal journal = this.journal;
+        if (journal == null) return;
+        journal.healthStatusChanged(animal, previous);
+        recordAppended();
+    }
+
+    @Override
+    public void beforeArchiveAppend(String animalId) {
+        ZooJournal journal = this.journal;
+        if (journal == null) return;
+        try {
+            journal.sync();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal write failed", e);
+        }
+    }
+
+    // Once the journal has failed, changes are refused rather than kept in
+    // memory only
+    @Override
+    public void beforeChange() {
+        ZooJournal journal = this.journal;
+        if (journal != null) journal.checkWritable();
+    }
+
+    // The change is in memory already; a failed write surfaces to its caller here
+    @Override
+    public void changeReleased() {
+        ZooJournal journal = this.journal;
+        if (journal == null) return;
+        try {
+            journal.awaitAppended();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal write failed", e);
+        }
+    }
+
+    // Schedules a compaction on the background thread
+    public Future<?> compactAsync() {
+        return compactor.submit(() -> {
+            compact();
+            return null;
+        });
+    }
+
+    // Writes a final snapshot and stops journaling
+    @Override
+    public void close() throws IOException {
+        if (!open) return;
+        try {
+            compactAsync().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compacting", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Compaction failed", e.getCause());
+        } finally {
+            zoo.removeListener(this);
+            try {
+                if (journal != null) journal.close();
+            } finally {
+                journal = null;
+                open = false;
+                healthArchive.close();
+                compactor.shutdown();
+            }
+        }
+    }
+
+    // Rotates the journal and captures the zoo at the same instant, with every
+    // mutation held off, then writes the snapshot and deletes the journal
+    // segments it covers. Runs on the compactor thread only.
+    private void compact() throws IOException {
+        long start = ZooMetrics.start();
+        ZooSnapshot.Capture capture;
+        try {
+            capture = zoo.exclusive(() -> {
+                try {
+                    return ZooSnapshot.capture(zoo, journal != null ? journal.rotate() : replayedSequence);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        recordsSinceCompaction.set(0);
+        capture.writeTo(snapshotPath);
+        if (journal != null) journal.deleteSegmentsUpTo(capture.getJournalSequence());
+        ZooMetrics.COMPACTION.record(start);
+    }
+
+    private void recordAppended() {
+        if (recordsSinceCompaction.incrementAndGet() >= compactionThreshold
+                && compactionScheduled.compareAndSet(false, true)) {
+            compactor.submit(() -> {
+                try {
+                    compact();
+                } catch (IOException | RuntimeException e) {
+                    // The journal still holds everything; try again after the next batch.
+                    // Nothing waits on this task, so say why here or nobody will know
+                    System.err.println("Compaction of " + snapshotPath + " failed: " + e);
+                    ZooMetrics.COMPACTIONS_FAILED.increment();
+                    recordsSinceCompaction.set(0);
+                } finally {
+                    compactionScheduled.set(false);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package zoo;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// Filters over a zoo's animals, with optional sorting, a limit and grouped
+// counts. Filters on different fields must all match; the values given to one
+// filter are alternatives, e.g. type("Lion", "Monkey"). Calling a filter again
+// replaces it. Ranges are inclusive.
+//
+// How a query runs depends on what it asks for: one naming an enclosure starts
+// from that enclosure's animals; otherwise, once the zoo keeps an AnimalTable,
+// the table's indexes answer it (see AnimalTable.select); failing both, every
+// animal is checked. explain() tells which.
+public class ZooQuery {
+    public enum Sort { ID, NAME, AGE, ARRIVAL, TYPE }
+
+    public enum Group { TYPE, HABITAT, HEALTH, ENCLOSURE }
+
+    private final Zoo zoo;
+    private Set<String> types;
+    private Set<String> habitats;
+    private EnumSet<Animal.HealthStatus> statuses;
+    private int minAge = Integer.MIN_VALUE;
+    private int maxAge = Integer.MAX_VALUE;
+    private int firstArrivalDay = Integer.MIN_VALUE;
+    private int lastArrivalDay = Integer.MAX_VALUE;
+    private String enclosureId;
+    private Sort sort;
+    private boolean descending;
+    private int limit = Integer.MAX_VALUE;
+
+    ZooQuery(Zoo zoo) {
+        this.zoo = zoo;
+    }
+
+    // Type names as Animal.getType() gives them, in any case
+    public ZooQuery type(String... types) {
+        Set<String> names = new HashSet<>();
+        for (String type : types) names.add(type.toLowerCase(Locale.ROOT));
+        this.types = names;
+        return this;
+    }
+
+    // Habitat names are case-sensitive, as everywhere else
+    public ZooQuery habitat(String... habitats) {
+        this.habitats = new HashSet<>(Arrays.asList(habitats));
+        return this;
+    }
+
+    public ZooQuery health(Animal.HealthStatus... statuses) {
+        this.statuses = EnumSet.noneOf(Animal.HealthStatus.class);
+        this.statuses.addAll(Arrays.asList(statuses));
+        return this;
+    }
+
+    public ZooQuery ageBetween(int min, int max) {
+        if (min > max) throw new IllegalArgumentException("Minimum age " + min + " is above maximum " + max);
+        this.minAge = min;
+        this.maxAge = max;
+        return this;
+    }
+
+    public ZooQuery arrivedBetween(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) throw new IllegalArgumentException("Arrival range starts after it ends: " + from + " to " + to);
+        this.firstArrivalDay = (int) from.toEpochDay();
+        this.lastArrivalDay = (int) to.toEpochDay();
+        return this;
+    }
+
+    public ZooQuery inEnclosure(String enclosureId) {
+        this.enclosureId = enclosureId;
+        return this;
+    }
+
+    // Ties come in no particular order; that lets a sort by age stop walking
+    // the age index as soon as it has enough animals
+    public ZooQuery sortBy(Sort sort) {
+        return sortBy(sort, false);
+    }
+
+    public ZooQuery sortBy(Sort sort, boolean descending) {
+        this.sort = Objects.requireNonNull(sort);
+        this.descending = descending;
+        return this;
+    }
+
+    public ZooQuery limit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("Limit cannot be negative");
+        this.limit = limit;
+        return this;
+    }
+
+    public List<Animal> list() {
+        long start = ZooMetrics.start();
+        try {
+            // Unsorted, the first matches found will do
+            int wanted = sort == null ? limit : Integer.MAX_VALUE;
+            if (enclosureId != null) return sortAndLimit(filter(enclosureAnimals(), wanted));
+            AnimalTable table = zoo.getAnimalTable();
+            if (table != null) return table.select(this);
+            return sortAndLimit(filter(zoo.allAnimals(), wanted));
+        } finally {
+            ZooMetrics.QUERY.record(start);
+        }
+    }
+
+    // Ignores sort and limit
+    public long count() {
+        long start = ZooMetrics.start();
+        try {
+            if (enclosureId != null) return filter(enclosureAnimals(), Integer.MAX_VALUE).size();
+            AnimalTable table = zoo.getAnimalTable();
+            if (table != null) return table.count(this);
+            return filter(zoo.allAnimals(), Integer.MAX_VALUE).size();
+        } finally {
+            ZooMetrics.QUERY.record(start);
+        }
+    }
+
+    // Matching animals per type, habitat, health status or enclosure ("" for
+    // none), in key order. Ignores sort and limit.
+    public Map<String, Long> countBy(Group group) {
+        Objects.requireNonNull(group);
+        long start = ZooMetrics.start();
+        try {
+            AnimalTable table = zoo.getAnimalTable();
+            if (enclosureId == null && table != null && group != Group.ENCLOSURE) return table.countBy(this, group);
+            List<Animal> matches = enclosureId != null ? filter(enclosureAnimals(), Integer.MAX_VALUE)
+                    : table != null ? table.select(this, false) : filter(zoo.allAnimals(), Integer.MAX_VALUE);
+            Map<String, Long> counts = new TreeMap<>();
+            for (Animal animal : matches) counts.merge(groupKey(animal, group), 1L, Long::sum);
+            return counts;
+        } finally {
+            ZooMetrics.QUERY.record(start);
+        }
+    }
+
+    // One line on how list() would find the animals
+    public String explain() {
+        if (enclosureId != null) return "enclosure " + enclosureId + ", then filter each animal";
+        AnimalTable table = zoo.getAnimalTable();
+        if (table != null) return table.explain(this);
+        return "scan all animals";
+    }
+
+    Set<String> getTypes() { return types; }
+    Set<String> getHabitats() { return habitats; }
+    EnumSet<Animal.HealthStatus> getStatuses() { return statuses; }
+    boolean hasAgeRange() { return minAge != Integer.MIN_VALUE || maxAge != Integer.MAX_VALUE; }
+    int getMinAge() { return minAge; }
+    int getMaxAge() { return maxAge; }
+    boolean hasArrivalRange() { return firstArrivalDay != Integer.MIN_VALUE || lastArrivalDay != Integer.MAX_VALUE; }
+    int getFirstArrivalDay() { return firstArrivalDay; }
+    int getLastArrivalDay() { return lastArrivalDay; }
+    Sort getSort() { return sort; }
+    boolean isDescending() { return descending; }
+    int getLimit() { return limit; }
+
+    boolean matches(Animal animal) {
+        return (types == null || matchesType(animal.getType()))
+                && (habitats == null || habitats.contains(animal.getHabitatType()))
+                && (statuses == null || statuses.contains(animal.getHealthStatus()))
+                && animal.getAge() >= minAge && animal.getAge() <= maxAge
+                && animal.getArrivalDay() >= firstArrivalDay && animal.getArrivalDay() <= lastArrivalDay;
+    }
+
+    // The requested order, or null when none was asked for
+    Comparator<Animal> comparator() {
+        if (sort == null) return null;
+        Comparator<Animal> order = switch (sort) {
+            case ID -> Comparator.comparing(Animal::getId);
+            case NAME -> Comparator.comparing(Animal::getName);
+            case AGE -> Comparator.comparingInt(Animal::getAge);
+            case ARRIVAL -> Comparator.comparingInt(Animal::getArrivalDay);
+            case TYPE -> Comparator.comparing(Animal::getType);
+        };
+        return descending ? order.reversed() : order;
+    }
+
+    // The first limit animals in the requested order; a bounded heap rather
+    // than a full sort when only a few are wanted
+    List<Animal> sortAndLimit(List<Animal> animals) {
+        Comparator<Animal> order = comparator();
+        if (order == null) return animals.size() <= limit ? animals : new ArrayList<>(animals.subList(0, limit));
+        if (limit >= animals.size() / 2) {
+            animals.sort(order);
+            return animals.size() <= limit ? animals : new ArrayList<>(animals.subList(0, limit));
+        }
+        if (limit == 0) return new ArrayList<>();
+        PriorityQueue<Animal> kept = new PriorityQueue<>(limit, order.reversed());
+        for (Animal animal : animals) {
+            if (kept.size() < limit) {
+                kept.add(animal);
+            } else if (order.compare(animal, kept.peek()) < 0) {
+                kept.poll();
+                kept.add(animal);
+            }
+        }
+        List<Animal> result = new ArrayList<>(kept);
+        result.sort(order);
+        return result;
+    }
+
+    String groupKey(Animal animal, Group group) {
+        return switch (group) {
+            case TYPE -> animal.getType();
+            case HABITAT -> animal.getHabitatType();
+            case HEALTH -> animal.getHealthStatus().name();
+            case ENCLOSURE -> {
+                Enclosure enclosure = zoo.getEnclosureOf(animal.getId());
+                yield enclosure == null ? "" : enclosure.getId();
+            }
+        };
+    }
+
+    private List<Animal> enclosureAnimals() {
+        Enclosure enclosure = zoo.getEnclosure(enclosureId);
+        return enclosure == null ? List.of() : enclosure.getAnimals();
+    }
+
+    private List<Animal> filter(List<Animal> animals, int max) {
+        List<Animal> matches = new ArrayList<>();
+        for (Animal animal : animals) {
+            if (matches.size() == max) break;
+            if (matches(animal)) matches.add(animal);
+        }
+        return matches;
+    }
+
+    // Without lower-casing every animal's type on the way
+    private boolean matchesType(String type) {
+        for (String wanted : types) {
+            if (wanted.equalsIgnoreCase(type)) return true;
+        }
+        return false;
+    }
+}
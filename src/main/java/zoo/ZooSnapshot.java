@@ -0,0 +1,309 @@
+package zoo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Versioned binary snapshot of a zoo.
+//
+// Layout: magic, version, animal type dictionary, health status dictionary,
+// enclosure count, animal count, journal sequence (v2), then the enclosure
+// records followed by the animal records. An animal record is a type code, id,
+// name, varint age and a health status code; species, diet and habitat follow
+// from the type. Version 2 ends with a count of health records, each an animal
+// id and its medical entries. Version 3 adds the animal's enclosure to each
+// animal record as a varint: 0 for none, otherwise the enclosure's position in
+// the file plus one. Version 4 adds the AnimalIdGenerator's high-water mark to
+// the header, after the journal sequence. Version 5 ends each animal record with
+// its arrival day (days since 1970-01-01) as a varint; earlier versions leave
+// loaded animals arriving on the day they are read. A zoo with a HealthArchive
+// writes no health records.
+public class ZooSnapshot {
+    static final int MAGIC = 0x5A4F4F53; // "ZOOS"
+    static final int VERSION = 5;
+
+    public static void save(Path path, Zoo zoo) throws IOException {
+        capture(zoo, 0).writeTo(path);
+    }
+
+    public static LoadReport load(Path path, Zoo zoo) throws IOException {
+        try (Reader reader = new Reader(path)) {
+            return reader.readInto(zoo);
+        }
+    }
+
+    // Copies what a snapshot needs out of the zoo so it can be written later,
+    // possibly on another thread, while the zoo keeps changing
+    public static Capture capture(Zoo zoo, long journalSequence) {
+        return new Capture(zoo, journalSequence);
+    }
+
+    public static class Capture {
+        private final long journalSequence;
+        private final long idHighWaterMark;
+        private final List<Enclosure> enclosures;
+        private final List<Animal> animals;
+        private final Animal.HealthStatus[] statuses;
+        private final String[] animalEnclosures;
+        private final Map<String, List<HealthRecord.MedicalEntry>> healthEntries = new HashMap<>();
+
+        private Capture(Zoo zoo, long journalSequence) {
+            this.journalSequence = journalSequence;
+            // Taken first: IDs handed out while the rest is copied are then above it
+            this.idHighWaterMark = zoo.getIdGenerator().getHighWaterMark();
+            this.enclosures = zoo.getEnclosures();
+            this.animals = zoo.listSortedByType();
+            this.statuses = new Animal.HealthStatus[animals.size()];
+            this.animalEnclosures = new String[animals.size()];
+            for (int i = 0; i < statuses.length; i++) {
+                Animal animal = animals.get(i);
+                statuses[i] = animal.getHealthStatus();
+                Enclosure enclosure = zoo.getEnclosureOf(animal.getId());
+                animalEnclosures[i] = enclosure == null ? null : enclosure.getId();
+                // An archived history is stored on its own; reading it here would load every record
+                if (zoo.hasHealthArchive()) continue;
+                HealthRecord record = zoo.getHealthRecord(animal.getId());
+                List<HealthRecord.MedicalEntry> entries = record == null ? List.of() : record.getEntries();
+                if (!entries.isEmpty()) healthEntries.put(animal.getId(), entries);
+            }
+        }
+
+        public long getJournalSequence() { return journalSequence; }
+
+        public void writeTo(Path path) throws IOException {
+            try (Writer writer = new Writer(path, enclosures.size(), animals.size(), journalSequence, idHighWaterMark)) {
+                for (Enclosure enclosure : enclosures) writer.writeEnclosure(enclosure);
+                for (int i = 0; i < statuses.length; i++) {
+                    writer.writeAnimal(animals.get(i), statuses[i], animalEnclosures[i]);
+                }
+                writer.beginHealthRecords(healthEntries.size());
+                for (Map.Entry<String, List<HealthRecord.MedicalEntry>> entry : healthEntries.entrySet()) {
+                    writer.writeHealthRecord(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    // Streams records into a temporary file that replaces the target on close,
+    // so a crash mid-write never leaves a truncated snapshot behind
+    public static class Writer implements Closeable {
+        private final Path target;
+        private final Path temp;
+        private final FileChannel channel;
+        private final ChannelOutput out;
+        private final Map<String, Integer> typeCodes = new HashMap<>();
+        private final Map<String, Integer> enclosureRefs = new HashMap<>();
+        private final int enclosureCount;
+        private final long animalCount;
+        private int enclosuresWritten;
+        private long animalsWritten;
+        private long healthRecordCount = -1;
+        private long healthRecordsWritten;
+
+        public Writer(Path target, int enclosureCount, long animalCount) throws IOException {
+            this(target, enclosureCount, animalCount, 0);
+        }
+
+        public Writer(Path target, int enclosureCount, long animalCount, long journalSequence) throws IOException {
+            this(target, enclosureCount, animalCount, journalSequence, 0);
+        }
+
+        public Writer(Path target, int enclosureCount, long animalCount, long journalSequence,
+                      long idHighWaterMark) throws IOException {
+            this.target = target;
+            this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.enclosureCount = enclosureCount;
+            this.animalCount = animalCount;
+            this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.out = new ChannelOutput(channel);
+
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(AnimalFactory.TYPES.size());
+            for (String type : AnimalFactory.TYPES) {
+                typeCodes.put(type, typeCodes.size());
+                out.writeString(type);
+            }
+            Animal.HealthStatus[] statuses = Animal.HealthStatus.values();
+            out.writeByte(statuses.length);
+            for (Animal.HealthStatus status : statuses) out.writeString(status.name());
+            out.writeInt(enclosureCount);
+            out.writeLong(animalCount);
+            out.writeLong(journalSequence);
+            out.writeLong(idHighWaterMark);
+        }
+
+        public void writeEnclosure(Enclosure enclosure) throws IOException {
+            if (animalsWritten > 0) throw new IllegalStateException("Enclosures must be written before animals");
+            out.writeString(enclosure.getId());
+            out.writeString(enclosure.getHabitatType());
+            out.writeVarInt(enclosure.getCapacity());
+            enclosuresWritten++;
+            enclosureRefs.put(enclosure.getId(), enclosuresWritten);
+        }
+
+        public void writeAnimal(Animal animal) throws IOException {
+            writeAnimal(animal, animal.getHealthStatus(), null);
+        }
+
+        // enclosureId must name an enclosure already written, or be null
+        public void writeAnimal(Animal animal, Animal.HealthStatus status, String enclosureId) throws IOException {
+            if (healthRecordCount >= 0) throw new IllegalStateException("Animals must be written before health records");
+            Integer typeCode = typeCodes.get(animal.getType());
+            if (typeCode == null) throw new IllegalArgumentException("Unknown animal type: " + animal.getType());
+            out.writeByte(typeCode);
+            out.writeString(animal.getId());
+            out.writeString(animal.getName());
+            out.writeVarInt(animal.getAge());
+            out.writeByte(status.ordinal());
+            out.writeVarInt(enclosureId == null ? 0 : enclosureRefs.getOrDefault(enclosureId, 0));
+            out.writeVarInt(animal.getArrivalDay());
+            animalsWritten++;
+        }
+
+        public void beginHealthRecords(long count) throws IOException {
+            if (healthRecordCount >= 0) throw new IllegalStateException("Health records already started");
+            healthRecordCount = count;
+            out.writeLong(count);
+        }
+
+        public void writeHealthRecord(String animalId, List<HealthRecord.MedicalEntry> entries) throws IOException {
+            if (healthRecordCount < 0) throw new IllegalStateException("Call beginHealthRecords first");
+            out.writeString(animalId);
+            out.writeVarInt(entries.size());
+            for (HealthRecord.MedicalEntry entry : entries) {
+                out.writeLong(entry.getDate().toEpochDay());
+                out.writeString(entry.getDescription());
+                out.writeString(entry.getVeterinarian());
+                out.writeString(entry.getTreatment());
+            }
+            healthRecordsWritten++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                if (healthRecordCount < 0) beginHealthRecords(0);
+                out.flush();
+                if (enclosuresWritten != enclosureCount || animalsWritten != animalCount
+                        || healthRecordsWritten != healthRecordCount) {
+                    throw new IOException(String.format("Snapshot header promised %d enclosures, %d animals and %d health records but got %d, %d and %d",
+                            enclosureCount, animalCount, healthRecordCount, enclosuresWritten, animalsWritten, healthRecordsWritten));
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    public static class Reader implements Closeable {
+        private final FileChannel channel;
+        private final ChannelInput in;
+        private final String[] types;
+        private final Animal.HealthStatus[] statuses;
+        private final int version;
+        private final int enclosureCount;
+        private final long animalCount;
+        private final long journalSequence;
+        private final long idHighWaterMark;
+        private final List<String> enclosureIds = new ArrayList<>();
+        private String lastEnclosureId;
+
+        public Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                this.in = new ChannelInput(channel);
+                if (in.readInt() != MAGIC) throw new IOException("Not a zoo snapshot: " + path);
+                version = in.readShort();
+                if (version < 1 || version > VERSION) throw new IOException("Unsupported snapshot version " + version);
+
+                types = new String[in.readByte()];
+                for (int i = 0; i < types.length; i++) types[i] = in.readString();
+                statuses = new Animal.HealthStatus[in.readByte()];
+                for (int i = 0; i < statuses.length; i++) statuses[i] = Animal.HealthStatus.valueOf(in.readString());
+                enclosureCount = in.readInt();
+                animalCount = in.readLong();
+                journalSequence = version >= 2 ? in.readLong() : 0;
+                idHighWaterMark = version >= 4 ? in.readLong() : 0;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public int getEnclosureCount() { return enclosureCount; }
+        public long getAnimalCount() { return animalCount; }
+        public long getJournalSequence() { return journalSequence; }
+        public long getIdHighWaterMark() { return idHighWaterMark; }
+        // Enclosure recorded for the animal most recently returned by readAnimal, or null
+        public String getLastEnclosureId() { return lastEnclosureId; }
+
+        public LoadReport readInto(Zoo zoo) throws IOException {
+            LoadReport report = new LoadReport();
+            zoo.getIdGenerator().advanceTo(idHighWaterMark);
+            for (int i = 0; i < enclosureCount; i++) {
+                if (zoo.addEnclosure(readEnclosure())) report.enclosureLoaded();
+            }
+            List<Animal> animals = new ArrayList<>((int) Math.min(animalCount, ZooStorage.ANIMAL_BATCH_SIZE));
+            List<String> animalEnclosureIds = new ArrayList<>((int) Math.min(animalCount, ZooStorage.ANIMAL_BATCH_SIZE));
+            for (long i = 0; i < animalCount; i++) {
+                animals.add(readAnimal());
+                animalEnclosureIds.add(lastEnclosureId);
+                if (animals.size() == ZooStorage.ANIMAL_BATCH_SIZE || i == animalCount - 1) {
+                    report.animalsAdded(zoo.addAll(animals, animalEnclosureIds));
+                    animals.clear();
+                    animalEnclosureIds.clear();
+                }
+            }
+            long records = readHealthRecordCount();
+            for (long i = 0; i < records; i++) {
+                HealthRecord record = readHealthRecord();
+                record.getEntries().forEach(entry -> zoo.addHealthEntry(record.getAnimalId(), entry));
+            }
+            return report;
+        }
+
+        public Enclosure readEnclosure() throws IOException {
+            Enclosure enclosure = new Enclosure(in.readString(), in.readString(), in.readVarInt());
+            enclosureIds.add(enclosure.getId());
+            return enclosure;
+        }
+
+        public Animal readAnimal() throws IOException {
+            String type = types[in.readByte()];
+            Animal animal = AnimalFactory.createAnimal(type, in.readString(), in.readString(), in.readVarInt());
+            animal.setHealthStatus(statuses[in.readByte()]);
+            int enclosureRef = version >= 3 ? in.readVarInt() : 0;
+            lastEnclosureId = enclosureRef == 0 ? null : enclosureIds.get(enclosureRef - 1);
+            if (version >= 5) animal.setArrivalDay(in.readVarInt());
+            return animal;
+        }
+
+        // Call once, after every animal has been read
+        public long readHealthRecordCount() throws IOException {
+            return version >= 2 ? in.readLong() : 0;
+        }
+
+        public HealthRecord readHealthRecord() throws IOException {
+            HealthRecord record = new HealthRecord(in.readString());
+            int entries = in.readVarInt();
+            for (int i = 0; i < entries; i++) {
+                LocalDate date = LocalDate.ofEpochDay(in.readLong());
+                record.addEntry(new HealthRecord.MedicalEntry(date, in.readString(), in.readString(), in.readString()));
+            }
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package zoo;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Running counts that Zoo updates on every add, remove and health status change,
+// so the statistics screen reads counters instead of scanning every animal.
+public class ZooStatistics {
+    private final LongAdder animals = new LongAdder();
+    private final Map<String, LongAdder> byType = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> byHabitat = new ConcurrentHashMap<>();
+    private final Map<AnimalProfile, LongAdder> byProfile = new ConcurrentHashMap<>();
+    private final LongAdder[] byHealth = new LongAdder[Animal.HealthStatus.values().length];
+    private final LongAdder enclosures = new LongAdder();
+    private final LongAdder enclosureCapacity = new LongAdder();
+    private final LongAdder housedAnimals = new LongAdder();
+
+    public ZooStatistics() {
+        for (int i = 0; i < byHealth.length; i++) byHealth[i] = new LongAdder();
+    }
+
+    void animalAdded(Animal animal, Enclosure enclosure) {
+        animals.increment();
+        byType.computeIfAbsent(animal.getType(), key -> new LongAdder()).increment();
+        byHabitat.computeIfAbsent(animal.getHabitatType(), key -> new LongAdder()).increment();
+        byProfile.computeIfAbsent(animal.getProfile(), key -> new LongAdder()).increment();
+        byHealth[animal.getHealthStatus().ordinal()].increment();
+        if (enclosure != null) housedAnimals.increment();
+    }
+
+    // As animalAdded for each, with each counter bumped once by its total
+    void animalsAdded(Collection<? extends Animal> added, long housed) {
+        Map<String, long[]> types = new HashMap<>();
+        Map<String, long[]> habitats = new HashMap<>();
+        Map<AnimalProfile, long[]> profiles = new IdentityHashMap<>();
+        long[] health = new long[byHealth.length];
+        for (Animal animal : added) {
+            types.computeIfAbsent(animal.getType(), key -> new long[1])[0]++;
+            habitats.computeIfAbsent(animal.getHabitatType(), key -> new long[1])[0]++;
+            profiles.computeIfAbsent(animal.getProfile(), key -> new long[1])[0]++;
+            health[animal.getHealthStatus().ordinal()]++;
+        }
+        animals.add(added.size());
+        types.forEach((type, count) -> byType.computeIfAbsent(type, key -> new LongAdder()).add(count[0]));
+        habitats.forEach((habitat, count) -> byHabitat.computeIfAbsent(habitat, key -> new LongAdder()).add(count[0]));
+        profiles.forEach((profile, count) -> byProfile.computeIfAbsent(profile, key -> new LongAdder()).add(count[0]));
+        for (int i = 0; i < health.length; i++) byHealth[i].add(health[i]);
+        housedAnimals.add(housed);
+    }
+
+    void animalRemoved(Animal animal, Enclosure enclosure) {
+        animals.decrement();
+        byType.get(animal.getType()).decrement();
+        byHabitat.get(animal.getHabitatType()).decrement();
+        byProfile.get(animal.getProfile()).decrement();
+        byHealth[animal.getHealthStatus().ordinal()].decrement();
+        if (enclosure != null) housedAnimals.decrement();
+    }
+
+    void healthStatusChanged(Animal.HealthStatus previous, Animal.HealthStatus current) {
+        byHealth[previous.ordinal()].decrement();
+        byHealth[current.ordinal()].increment();
+    }
+
+    void enclosureAdded(Enclosure enclosure) {
+        enclosures.increment();
+        enclosureCapacity.add(enclosure.getCapacity());
+    }
+
+    Map<AnimalProfile, Long> countByProfile() {
+        Map<AnimalProfile, Long> counts = new HashMap<>();
+        byProfile.forEach((profile, counter) -> {
+            long count = counter.sum();
+            if (count > 0) counts.put(profile, count);
+        });
+        return counts;
+    }
+
+    public Snapshot snapshot() {
+        Map<Animal.HealthStatus, Long> health = new EnumMap<>(Animal.HealthStatus.class);
+        for (Animal.HealthStatus status : Animal.HealthStatus.values()) {
+            health.put(status, byHealth[status.ordinal()].sum());
+        }
+        return new Snapshot(animals.sum(), sums(byType), sums(byHabitat), health,
+                enclosures.sum(), enclosureCapacity.sum(), housedAnimals.sum());
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((key, counter) -> {
+            long count = counter.sum();
+            if (count > 0) result.put(key, count);
+        });
+        return result;
+    }
+
+    // Point-in-time copy of the counters. Under concurrent changes the individual
+    // numbers can be a few updates apart, never permanently wrong.
+    public static class Snapshot {
+        private final long totalAnimals;
+        private final Map<String, Long> countByType;
+        private final Map<String, Long> countByHabitat;
+        private final Map<Animal.HealthStatus, Long> countByHealth;
+        private final long enclosureCount;
+        private final long enclosureCapacity;
+        private final long housedAnimals;
+
+        Snapshot(long totalAnimals, Map<String, Long> countByType, Map<String, Long> countByHabitat,
+                 Map<Animal.HealthStatus, Long> countByHealth, long enclosureCount, long enclosureCapacity,
+                 long housedAnimals) {
+            this.totalAnimals = totalAnimals;
+            this.countByType = Collections.unmodifiableMap(countByType);
+            this.countByHabitat = Collections.unmodifiableMap(countByHabitat);
+            this.countByHealth = Collections.unmodifiableMap(countByHealth);
+            this.enclosureCount = enclosureCount;
+            this.enclosureCapacity = enclosureCapacity;
+            this.housedAnimals = housedAnimals;
+        }
+
+        public long getTotalAnimals() { return totalAnimals; }
+        public Map<String, Long> getCountByType() { return countByType; }
+        public Map<String, Long> getCountByHabitat() { return countByHabitat; }
+        public Map<Animal.HealthStatus, Long> getCountByHealth() { return countByHealth; }
+        public long getEnclosureCount() { return enclosureCount; }
+        public long getEnclosureCapacity() { return enclosureCapacity; }
+        public long getHousedAnimals() { return housedAnimals; }
+        public long getUnhousedAnimals() { return totalAnimals - housedAnimals; }
+
+        public long getNeedingMedicalAttention() {
+            return countByHealth.get(Animal.HealthStatus.SICK) + countByHealth.get(Animal.HealthStatus.CRITICAL);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("ZooStatistics{animals=%d, types=%s, habitats=%s, health=%s, enclosures=%d, occupancy=%d/%d}",
+                    totalAnimals, countByType, countByHabitat, countByHealth, enclosureCount, housedAnimals, enclosureCapacity);
+        }
+    }
+}
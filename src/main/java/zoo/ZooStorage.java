@@ -0,0 +1,313 @@
+package zoo;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+public class ZooStorage {
+    private static final String DELIMITER = ",";
+    // META,<key>,<value> rows carry zoo-wide state; loaders ignore keys they don't know
+    private static final String ID_HIGH_WATER_MARK = "idHighWaterMark";
+    private static final long MIN_PARALLEL_FILE_SIZE = 4L * 1024 * 1024;
+    private static final long MIN_CHUNK_SIZE = 1024L * 1024;
+    private static final long MAX_CHUNK_SIZE = 64L * 1024 * 1024;
+    // Animal rows are handed to Zoo.addAll this many at a time
+    static final int ANIMAL_BATCH_SIZE = 1 << 20;
+
+    public void save(String filePath, Zoo zoo) throws IOException {
+        long start = ZooMetrics.start();
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(filePath),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeMetaRow(out, ID_HIGH_WATER_MARK, String.valueOf(zoo.getIdGenerator().getHighWaterMark()));
+            // Enclosures first, so animals can be put back in theirs on load
+            for (Enclosure e : zoo.getEnclosures()) {
+                writeEnclosureRow(out, e);
+            }
+
+            for (Animal a : zoo.listSortedByType()) {
+                Enclosure enclosure = zoo.getEnclosureOf(a.getId());
+                writeAnimalRow(out, a, enclosure == null ? null : enclosure.getId());
+            }
+        } finally {
+            ZooMetrics.CSV_SAVE.record(start);
+        }
+    }
+
+    static void writeMetaRow(Writer out, String key, String value) throws IOException {
+        out.write("META" + DELIMITER + key + DELIMITER + value);
+        out.write(System.lineSeparator());
+    }
+
+    static void writeEnclosureRow(Writer out, Enclosure e) throws IOException {
+        out.write("ENCLOSURE" + DELIMITER +
+            e.getId() + DELIMITER +
+            e.getHabitatType() + DELIMITER +
+            e.getCapacity());
+        out.write(System.lineSeparator());
+    }
+
+    static void writeAnimalRow(Writer out, Animal a, String enclosureId) throws IOException {
+        out.write(String.join(DELIMITER,
+            a.getType(),
+            a.getId(),
+            a.getName(),
+            String.valueOf(a.getAge()),
+            a.getSpecies(),
+            a.getDiet(),
+            a.getHabitatType(),
+            a.getHealthStatus().toString(),
+            enclosureId == null ? "" : enclosureId,
+            a.getArrivalDate().toString()));
+        out.write(System.lineSeparator());
+    }
+
+    public LoadReport load(String filePath, Zoo zoo) throws IOException {
+        LoadReport report = new LoadReport();
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) return report;
+
+        long start = ZooMetrics.start();
+        try (Reader in = Files.newBufferedReader(path)) {
+            CsvReader reader = new CsvReader(in, DELIMITER.charAt(0));
+            AnimalBatch batch = new AnimalBatch(zoo, report);
+            while (reader.next()) {
+                if (reader.isBlankLine()) continue;
+                apply(parseLine(reader), 0, batch);
+            }
+            batch.flush();
+        } finally {
+            ZooMetrics.CSV_LOAD.record(start);
+        }
+        return report;
+    }
+
+    // Parses the file in newline-aligned chunks on the fork/join pool, then adds the
+    // rows to the zoo in file order so duplicates and enclosure placement behave as in load()
+    public LoadReport loadParallel(String filePath, Zoo zoo) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) return new LoadReport();
+
+        long loadStart = ZooMetrics.start();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int parallelism = ForkJoinPool.commonPool().getParallelism();
+            if (size < MIN_PARALLEL_FILE_SIZE || parallelism < 2) {
+                return load(filePath, zoo);
+            }
+
+            long chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / (parallelism * 4L)));
+            List<ChunkParser> chunks = new ArrayList<>();
+            long start = 0;
+            while (start < size) {
+                long end = nextLineStart(channel, Math.min(size, start + chunkSize), size);
+                chunks.add(new ChunkParser(channel, start, end));
+                start = end;
+            }
+            ForkJoinTask.invokeAll(chunks);
+
+            LoadReport report = new LoadReport();
+            AnimalBatch batch = new AnimalBatch(zoo, report);
+            long lineOffset = 0;
+            for (ChunkParser chunk : chunks) {
+                ParsedChunk parsed = chunk.join();
+                for (Object row : parsed.rows) {
+                    apply(row, lineOffset, batch);
+                }
+                lineOffset += parsed.lineCount;
+            }
+            batch.flush();
+            return report;
+        } finally {
+            ZooMetrics.CSV_LOAD_PARALLEL.record(loadStart);
+        }
+    }
+
+    public void saveSnapshot(String filePath, Zoo zoo) throws IOException {
+        long start = ZooMetrics.start();
+        try {
+            ZooSnapshot.save(Paths.get(filePath), zoo);
+        } finally {
+            ZooMetrics.SNAPSHOT_SAVE.record(start);
+        }
+    }
+
+    public LoadReport loadSnapshot(String filePath, Zoo zoo) throws IOException {
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) return new LoadReport();
+        long start = ZooMetrics.start();
+        try {
+            return ZooSnapshot.load(path, zoo);
+        } finally {
+            ZooMetrics.SNAPSHOT_LOAD.record(start);
+        }
+    }
+
+    // Returns an Enclosure, an Animal, a PlacedAnimal, a MetaRow or a MalformedRow for the current line
+    private static Object parseLine(CsvReader reader) {
+        try {
+            int fields = reader.fieldCount();
+            if (reader.fieldEquals(0, "META") && fields == 3) {
+                return new MetaRow(reader.field(1), reader.field(2), reader.lineNumber());
+            } else if (reader.fieldEquals(0, "ENCLOSURE") && fields == 4) {
+                return new Enclosure(reader.field(1), reader.field(2), reader.intField(3));
+            } else if (fields >= 8 && fields <= 10) {
+                Animal animal = AnimalFactory.createAnimal(reader.field(0), reader.field(1), reader.field(2), reader.intField(3));
+                animal.setHealthStatus(Animal.HealthStatus.valueOf(reader.field(7)));
+                // Rows written before the arrival date was saved arrive on load
+                if (fields == 10) animal.setArrivalDay((int) LocalDate.parse(reader.field(9)).toEpochDay());
+                String enclosureId = fields >= 9 ? reader.field(8) : "";
+                return enclosureId.isEmpty() ? animal : new PlacedAnimal(animal, enclosureId);
+            } else if (fields == 4) {
+                // Backward compatibility with old format
+                return AnimalFactory.createAnimal(reader.field(0), reader.field(1), reader.field(2), reader.intField(3));
+            }
+            return new MalformedRow(reader.lineNumber(), "unexpected field count " + fields);
+        } catch (Exception e) {
+            // Skip malformed entries to maintain stability, but remember where they were
+            return new MalformedRow(reader.lineNumber(), e.getMessage());
+        }
+    }
+
+    private static void apply(Object row, long lineOffset, AnimalBatch batch) {
+        if (row instanceof MetaRow meta) {
+            if (meta.key.equals(ID_HIGH_WATER_MARK)) {
+                try {
+                    batch.zoo.getIdGenerator().advanceTo(Long.parseLong(meta.value));
+                } catch (IllegalArgumentException e) {
+                    batch.report.malformed(lineOffset + meta.lineNumber, e.getMessage());
+                }
+            }
+        } else if (row instanceof Enclosure enclosure) {
+            // Animals above this row must not be placed in an enclosure defined after them
+            batch.flush();
+            if (batch.zoo.addEnclosure(enclosure)) batch.report.enclosureLoaded();
+        } else if (row instanceof Animal animal) {
+            batch.add(animal, null);
+        } else if (row instanceof PlacedAnimal placed) {
+            batch.add(placed.animal, placed.enclosureId);
+        } else if (row instanceof MalformedRow malformed) {
+            batch.report.malformed(lineOffset + malformed.lineNumber, malformed.reason);
+        }
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') return position + i + 1;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Serializable only by inheritance from ForkJoinTask; never serialized
+    @SuppressWarnings("serial")
+    private static class ChunkParser extends RecursiveTask<ParsedChunk> {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+
+        ChunkParser(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected ParsedChunk compute() {
+            try {
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                CharBuffer chars = StandardCharsets.UTF_8.decode(bytes);
+                CsvReader reader = new CsvReader(chars.array(), chars.limit(), DELIMITER.charAt(0));
+
+                ParsedChunk parsed = new ParsedChunk();
+                while (reader.next()) {
+                    if (reader.isBlankLine()) continue;
+                    parsed.rows.add(parseLine(reader));
+                }
+                parsed.lineCount = reader.lineNumber();
+                return parsed;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static class ParsedChunk {
+        private final List<Object> rows = new ArrayList<>();
+        private long lineCount;
+    }
+
+    // Consecutive animal rows, added to the zoo together
+    private static class AnimalBatch {
+        private final Zoo zoo;
+        private final LoadReport report;
+        private final List<Animal> animals = new ArrayList<>();
+        private final List<String> enclosureIds = new ArrayList<>();
+
+        AnimalBatch(Zoo zoo, LoadReport report) {
+            this.zoo = zoo;
+            this.report = report;
+        }
+
+        void add(Animal animal, String enclosureId) {
+            animals.add(animal);
+            enclosureIds.add(enclosureId);
+            if (animals.size() == ANIMAL_BATCH_SIZE) flush();
+        }
+
+        void flush() {
+            if (animals.isEmpty()) return;
+            report.animalsAdded(zoo.addAll(animals, enclosureIds));
+            animals.clear();
+            enclosureIds.clear();
+        }
+    }
+
+    private static class PlacedAnimal {
+        private final Animal animal;
+        private final String enclosureId;
+
+        PlacedAnimal(Animal animal, String enclosureId) {
+            this.animal = animal;
+            this.enclosureId = enclosureId;
+        }
+    }
+
+    private static class MetaRow {
+        private final String key;
+        private final String value;
+        private final long lineNumber;
+
+        MetaRow(String key, String value, long lineNumber) {
+            this.key = key;
+            this.value = value;
+            this.lineNumber = lineNumber;
+        }
+    }
+
+    private static class MalformedRow {
+        private final long lineNumber;
+        private final String reason;
+
+        MalformedRow(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+    }
+}
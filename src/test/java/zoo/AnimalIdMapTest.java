@@ -0,0 +1,76 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AnimalIdMapTest {
+    // The most one segment holds before its first table grows
+    private static final int BEFORE_GROWTH = 9;
+
+    @Test
+    void removalsBackshiftAcrossTheEndOfTheTable() {
+        // IDs of one segment whose home slots are the last few and the first few,
+        // so their probe runs wrap round from the end of the table to the start
+        Set<Integer> homes = Set.of(AnimalIdMap.INITIAL_SLOTS - 3, AnimalIdMap.INITIAL_SLOTS - 2,
+                AnimalIdMap.INITIAL_SLOTS - 1, 0, 1);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; ids.size() < 2 * BEFORE_GROWTH; i++) {
+            String id = "W" + i;
+            long hash = AnimalIdMap.mix(AnimalIdMap.keyOf(id));
+            if (hash >>> (64 - AnimalIdMap.SEGMENT_BITS) == 0 && homes.contains((int) hash & (AnimalIdMap.INITIAL_SLOTS - 1))) {
+                ids.add(id);
+            }
+        }
+
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            AnimalIdMap<String> map = new AnimalIdMap<>();
+            Map<String, String> expected = new HashMap<>();
+            for (int step = 0; step < 60; step++) {
+                String id = ids.get(random.nextInt(ids.size()));
+                if (expected.size() < BEFORE_GROWTH && random.nextBoolean()) {
+                    assertEquals(expected.put(id, id + step), map.put(id.toLowerCase(Locale.ROOT), id + step));
+                } else {
+                    assertEquals(expected.remove(id), map.remove(id));
+                }
+                for (String other : ids) assertEquals(expected.get(other), map.get(other), other);
+                assertEquals(expected.size(), map.size());
+            }
+        }
+    }
+
+    @Test
+    void idsThatCannotBePackedFallBackToNormalizedStrings() {
+        AnimalIdMap<String> map = new AnimalIdMap<>();
+        List<String> unpackable = List.of("ELEVENCHARS", "TWO WORDS", "ZOË-1", "LION#1", "");
+        for (String id : unpackable) {
+            assertEquals(0, AnimalIdMap.keyOf(id), id);
+            assertNull(map.put(id, id));
+        }
+        assertEquals("ELEVENCHARS", map.get(" elevenchars "));
+        assertEquals("TWO WORDS", map.get("two words"));
+        assertEquals("ZOË-1", map.get("zoë-1"));
+        assertEquals("LION#1", map.get("lion#1"));
+        assertEquals("", map.get(null));
+        assertEquals(unpackable.size(), map.size());
+        assertTrue(map.values().containsAll(unpackable));
+
+        // Upper-casing turns these into plain ASCII, so they pack and meet their ASCII forms
+        assertEquals(AnimalIdMap.keyOf("LION"), AnimalIdMap.keyOf("lıon"));
+        assertNull(map.put("LION", "lion"));
+        assertEquals("lion", map.put("lıon", "dotless"));
+        assertEquals("dotless", map.get("lion"));
+        assertNull(map.put("straße", "street"));
+        assertEquals("street", map.get("STRASSE"));
+
+        assertEquals("ZOË-1", map.remove("Zoë-1"));
+        assertNull(map.get("ZOË-1"));
+        assertEquals("dotless", map.remove(" Lion "));
+        assertEquals(unpackable.size(), map.size());
+    }
+}
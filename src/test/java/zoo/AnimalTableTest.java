@@ -0,0 +1,65 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The table's arrival column must hold the saved arrival day of animals loaded
+// from a snapshot, not the day they were loaded
+class AnimalTableTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void arrivalColumnHoldsSavedDaysAfterSnapshotLoad() throws Exception {
+        Zoo original = new Zoo();
+        Random random = new Random(7);
+        for (int i = 0; i < 500; i++) {
+            Animal animal = AnimalFactory.createAnimal(AnimalFactory.TYPES.get(i % 5), "A" + i, "n", random.nextInt(20));
+            animal.setArrivalDay((int) FIRST_DAY.plusDays(random.nextInt(1_000)).toEpochDay());
+            original.addAnimal(animal);
+        }
+        Path snapshot = dir.resolve("zoo.bin");
+        ZooSnapshot.save(snapshot, original);
+
+        // One table filled as the snapshot loads, one built from the loaded zoo
+        Zoo indexedFirst = new Zoo();
+        AnimalTable filledOnLoad = indexedFirst.enableAnimalTable();
+        ZooSnapshot.load(snapshot, indexedFirst);
+        Zoo indexedAfter = new Zoo();
+        ZooSnapshot.load(snapshot, indexedAfter);
+        AnimalTable builtAfter = indexedAfter.enableAnimalTable();
+
+        // Removals move the last row into the gap; its arrival day must move with it
+        for (int i = 0; i < 500; i += 7) {
+            original.removeById("A" + i);
+            indexedFirst.removeById("A" + i);
+            indexedAfter.removeById("A" + i);
+        }
+
+        for (int window = 0; window < 20; window++) {
+            LocalDate from = FIRST_DAY.plusDays(random.nextInt(1_000));
+            LocalDate to = from.plusDays(random.nextInt(200));
+            long expected = original.listSortedByType().stream()
+                    .filter(animal -> !animal.getArrivalDate().isBefore(from) && !animal.getArrivalDate().isAfter(to))
+                    .count();
+            assertEquals(expected, filledOnLoad.countArrivedBetween(from, to));
+            assertEquals(expected, builtAfter.countArrivedBetween(from, to));
+            assertEquals(expected, indexedFirst.query().arrivedBetween(from, to).count());
+        }
+        assertEquals(0, filledOnLoad.countArrivedBetween(LocalDate.now(), LocalDate.now()));
+
+        List<LocalDate> expectedOrder = original.listSortedByType().stream()
+                .map(Animal::getArrivalDate).sorted().limit(25).toList();
+        List<LocalDate> earliest = indexedFirst.query().sortBy(ZooQuery.Sort.ARRIVAL).limit(25).list().stream()
+                .map(Animal::getArrivalDate).toList();
+        assertEquals(expectedOrder, earliest);
+    }
+}
@@ -0,0 +1,68 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// An animal's arrival date is saved with it, so it is the same after every way
+// of reloading a zoo
+class ArrivalDateTest {
+    private static final LocalDate ARRIVED = LocalDate.of(2019, 4, 17);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void arrivalDateSurvivesCloseAndReopen() throws Exception {
+        Path snapshot = dir.resolve("zoo.snap");
+        Zoo zoo = new Zoo();
+        ZooPersistence persistence = new ZooPersistence(snapshot.toString());
+        persistence.open(zoo, null);
+        zoo.addAnimal(arrivedAnimal("L1"), "SAVANNA_1");
+        zoo.addAnimal(AnimalFactory.createAnimal("Penguin", "P1", "Pip", 2));
+
+        // Before close, only the journal has them
+        Zoo replayed = new Zoo();
+        ZooJournal.replay(snapshot, 0, replayed, null, new LoadReport());
+        assertEquals(ARRIVED, replayed.getById("L1").getArrivalDate());
+        persistence.close();
+
+        Zoo reopened = new Zoo();
+        ZooPersistence again = new ZooPersistence(snapshot.toString());
+        again.open(reopened, null);
+        try {
+            assertEquals(ARRIVED, reopened.getById("L1").getArrivalDate());
+            assertEquals(LocalDate.now(), reopened.getById("P1").getArrivalDate());
+            assertEquals(1, reopened.query().arrivedBetween(ARRIVED, ARRIVED).count());
+        } finally {
+            again.close();
+        }
+    }
+
+    @Test
+    void arrivalDateSurvivesCsvAndSnapshotFiles() throws Exception {
+        Zoo zoo = new Zoo();
+        zoo.addAnimal(arrivedAnimal("L1"), "SAVANNA_1");
+        ZooStorage storage = new ZooStorage();
+        storage.save(dir.resolve("zoo.csv").toString(), zoo);
+        storage.saveSnapshot(dir.resolve("zoo.bin").toString(), zoo);
+
+        Zoo fromCsv = new Zoo();
+        storage.load(dir.resolve("zoo.csv").toString(), fromCsv);
+        assertEquals(ARRIVED, fromCsv.getById("L1").getArrivalDate());
+
+        Zoo fromSnapshot = new Zoo();
+        storage.loadSnapshot(dir.resolve("zoo.bin").toString(), fromSnapshot);
+        assertEquals(ARRIVED, fromSnapshot.getById("L1").getArrivalDate());
+    }
+
+    static Animal arrivedAnimal(String id) {
+        Animal animal = AnimalFactory.createAnimal("Lion", id, "Leo", 5);
+        animal.setArrivalDay((int) ARRIVED.toEpochDay());
+        return animal;
+    }
+}
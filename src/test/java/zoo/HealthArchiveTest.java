@@ -0,0 +1,56 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HealthArchiveTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void discardedRemovalsGiveBackTheHistory() throws Exception {
+        Path directory = dir.resolve("health");
+        try (HealthArchive archive = new HealthArchive(directory, true)) {
+            archive.append("A1", entry("checkup"));
+            archive.append("B1", entry("vaccination"));
+            archive.animalRemoved("B1", 3);
+            archive.animalRemoved("A1", 5);
+            assertEquals(List.of(), descriptions(archive, "A1"));
+
+            // Removal 5 never reached the journal; removal 3 did
+            archive.discardRemovalsAfter(4);
+            assertEquals(List.of("checkup"), descriptions(archive, "A1"));
+            assertEquals(List.of(), descriptions(archive, "B1"));
+
+            // Nothing above the mark is left, so this changes nothing
+            archive.discardRemovalsAfter(4);
+            assertEquals(List.of("checkup"), descriptions(archive, "A1"));
+        }
+
+        try (HealthArchive archive = new HealthArchive(directory, true)) {
+            assertEquals(List.of("checkup"), descriptions(archive, "A1"));
+            assertEquals(List.of(), descriptions(archive, "B1"));
+
+            // Replaying removal 5 for real records it again
+            archive.animalRemoved("A1", 5);
+            assertEquals(List.of(), descriptions(archive, "A1"));
+            archive.animalRemoved("A1", 5);
+            archive.append("A1", entry("after"));
+            assertEquals(List.of("after"), descriptions(archive, "A1"));
+        }
+    }
+
+    private static HealthRecord.MedicalEntry entry(String description) {
+        return new HealthRecord.MedicalEntry(LocalDate.of(2024, 3, 1), description, "vet", "none");
+    }
+
+    private static List<String> descriptions(HealthArchive archive, String animalId) throws Exception {
+        return archive.load(animalId).getEntries().stream().map(HealthRecord.MedicalEntry::getDescription).toList();
+    }
+}
@@ -0,0 +1,85 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZooAddAllTest {
+    @Test
+    void firstOfEachIdWinsAndAskedForEnclosuresAreHonoured() {
+        Zoo zoo = new Zoo();
+        zoo.addAnimal(AnimalFactory.createAnimal("Lion", "L0", "Old", 9));
+        List<Animal> animals = Arrays.asList(
+                AnimalFactory.createAnimal("Lion", "L1", "A", 1),
+                AnimalFactory.createAnimal("Lion", "l1", "B", 2),
+                AnimalFactory.createAnimal("Lion", "L0", "C", 3),
+                null,
+                AnimalFactory.createAnimal("Penguin", "P1", "D", 4));
+        BulkResult result = zoo.addAll(animals, Arrays.asList(null, null, null, null, "AQUATIC_1"));
+
+        assertEquals(BulkResult.Outcome.ADDED, result.getOutcome(0));
+        assertEquals(BulkResult.Outcome.DUPLICATE, result.getOutcome(1));
+        assertEquals(BulkResult.Outcome.DUPLICATE, result.getOutcome(2));
+        assertEquals(BulkResult.Outcome.INVALID, result.getOutcome(3));
+        assertEquals(BulkResult.Outcome.ADDED, result.getOutcome(4));
+        assertEquals("A", zoo.getById("L1").getName());
+        assertEquals("AQUATIC_1", zoo.getEnclosureOf("P1").getId());
+        assertEquals(3, zoo.size());
+    }
+
+    @Test
+    void failedIndexFillLeavesNoTraceOfTheBatch() {
+        Zoo zoo = new Zoo();
+        zoo.enableAnimalTable();
+        zoo.addAnimal(AnimalFactory.createAnimal("Lion", "L0", "Old", 9));
+        ZooStatistics.Snapshot before = zoo.getStatistics();
+
+        List<Animal> batch = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) batch.add(AnimalFactory.createAnimal("Lion", "L" + i, "Simba", i));
+        batch.add(new FailingAnimal("X1"));
+        assertThrows(IllegalStateException.class, () -> zoo.addAll(batch));
+
+        assertEquals(1, zoo.size());
+        for (Animal animal : batch) assertNull(zoo.getById(animal.getId()));
+        assertTrue(zoo.getByName("Simba").isEmpty());
+        assertEquals(1, zoo.listSortedByType().size());
+        assertEquals(1, zoo.getAnimalTable().size());
+        assertEquals(1, zoo.getEnclosure("SAVANNA_1").getCurrentOccupancy());
+        assertEquals(before.toString(), zoo.getStatistics().toString());
+        ZooStatisticsTest.assertMatchesRecount(zoo);
+
+        // The same IDs can be added afterwards
+        assertEquals(3, zoo.addAll(batch.subList(0, 3)).getCount(BulkResult.Outcome.ADDED));
+        ZooStatisticsTest.assertMatchesRecount(zoo);
+    }
+
+    // Breaks the sorted view's fill the first time its type is asked for
+    private static class FailingAnimal extends Animal {
+        private boolean failed;
+
+        FailingAnimal(String id) {
+            super(id, "Glitch", 1, "Lion", "Carnivore", "Savanna");
+        }
+
+        @Override
+        public String getType() {
+            if (!failed) {
+                failed = true;
+                throw new IllegalStateException("type unavailable");
+            }
+            return super.getType();
+        }
+
+        @Override
+        public String makeSound() {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Consecutive adds go to Zoo.addAll together; errors must still name the right
+// lines, in line order, and later commands must see the adds before them
+class ZooBatchTest {
+    @Test
+    void queuedAddsReportFailuresAgainstTheirOwnLines() throws Exception {
+        String script = String.join("\n",
+                "add|Lion|Simba|5|L001",
+                "add|Lion|Nala|4|L001",
+                "add|Unicorn|Sparkle|3",
+                "add|Penguin|Pingu|2|P001|AQUATIC_1",
+                "set-health|L001|SICK",
+                "add|Lion|Kovu|3|L001",
+                "remove|P001",
+                "add|Monkey|Abu|6|M001");
+        Zoo zoo = new Zoo();
+        StringWriter output = new StringWriter();
+        ZooBatch batch = new ZooBatch(zoo, new PrintWriter(output), 100);
+        batch.run(new StringReader(script));
+
+        List<String> errors = output.toString().lines().filter(line -> line.startsWith("line ")).toList();
+        assertEquals(List.of(
+                "line 2: an animal with ID L001 already exists",
+                "line 3: Unknown animal type: Unicorn",
+                "line 6: an animal with ID L001 already exists"), errors);
+        assertEquals(8, batch.getCommands());
+        assertEquals(3, batch.getFailures());
+        assertEquals(2, zoo.size());
+        assertEquals(Animal.HealthStatus.SICK, zoo.getById("L001").getHealthStatus());
+        assertEquals("Simba", zoo.getById("L001").getName());
+        assertNull(zoo.getById("P001"));
+    }
+
+    @Test
+    void batchBoundarySubmitsQueuedAdds() throws Exception {
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; i < 10; i++) script.append("add|Penguin|P").append(i).append("|1|P").append(i % 7).append('\n');
+        Zoo zoo = new Zoo();
+        StringWriter output = new StringWriter();
+        ZooBatch batch = new ZooBatch(zoo, new PrintWriter(output), 4);
+        batch.run(new StringReader(script.toString()));
+
+        assertEquals(7, zoo.size());
+        assertEquals(3, batch.getFailures());
+        List<String> batches = output.toString().lines().filter(line -> line.startsWith("Batch ")).toList();
+        assertEquals(3, batches.size());
+        assertTrue(batches.get(1).contains("(1 failed)"));
+        assertTrue(batches.get(2).contains("(2 failed)"));
+    }
+}
@@ -0,0 +1,88 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Many threads adding, removing and updating the same IDs and filling the same
+// small enclosures; once they are done the zoo must add up
+class ZooConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int STEPS = 5_000;
+    private static final int IDS = 400;
+    private static final Animal.HealthStatus[] STATUSES = Animal.HealthStatus.values();
+
+    @Test
+    void stateAddsUpAfterConcurrentChanges() throws Exception {
+        Zoo zoo = new Zoo();
+        zoo.enableAnimalTable();
+        zoo.addEnclosure(new Enclosure("SAVANNA_2", "Savanna", 3));
+        zoo.addEnclosure(new Enclosure("AQUATIC_2", "Aquatic", 2));
+        List<String> enclosureIds = List.of("SAVANNA_1", "SAVANNA_2", "AQUATIC_1", "AQUATIC_2", "TROPICAL_1");
+
+        AtomicLong added = new AtomicLong();
+        AtomicLong removed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            workers.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                start.await();
+                for (int step = 0; step < STEPS; step++) {
+                    String id = "A" + random.nextInt(IDS);
+                    switch (random.nextInt(6)) {
+                        case 0 -> {
+                            if (zoo.addAnimal(randomAnimal(random, id))) added.incrementAndGet();
+                        }
+                        case 1 -> {
+                            String enclosureId = enclosureIds.get(random.nextInt(enclosureIds.size()));
+                            if (zoo.addAnimal(randomAnimal(random, id), enclosureId)) added.incrementAndGet();
+                        }
+                        case 2 -> {
+                            List<Animal> batch = new ArrayList<>();
+                            for (int i = 0; i < 4; i++) batch.add(randomAnimal(random, "A" + random.nextInt(IDS)));
+                            added.addAndGet(zoo.addAll(batch).getCount(BulkResult.Outcome.ADDED));
+                        }
+                        case 3 -> {
+                            if (zoo.removeById(id) != null) removed.incrementAndGet();
+                        }
+                        case 4 -> removed.addAndGet(zoo.removeAll(List.of(id, "A" + random.nextInt(IDS)))
+                                .getCount(BulkResult.Outcome.REMOVED));
+                        default -> zoo.updateHealthStatus(id, STATUSES[random.nextInt(STATUSES.length)]);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        for (Future<?> worker : workers) worker.get(2, TimeUnit.MINUTES);
+
+        assertEquals(added.get() - removed.get(), zoo.size());
+        assertEquals(zoo.size(), zoo.getStatistics().getTotalAnimals());
+
+        long housed = 0;
+        for (Enclosure enclosure : zoo.getEnclosures()) {
+            List<Animal> inside = enclosure.getAnimals();
+            assertTrue(inside.size() <= enclosure.getCapacity(), enclosure.getId() + " is over capacity");
+            for (Animal animal : inside) {
+                assertTrue(zoo.getById(animal.getId()) == animal, animal.getId() + " is housed but not in the zoo");
+                assertTrue(zoo.getEnclosureOf(animal.getId()) == enclosure, animal.getId() + " is in the wrong enclosure");
+            }
+            housed += inside.size();
+        }
+        assertEquals(housed, zoo.getStatistics().getHousedAnimals());
+        ZooStatisticsTest.assertMatchesRecount(zoo);
+    }
+
+    private static Animal randomAnimal(Random random, String id) {
+        return AnimalFactory.createAnimal(AnimalFactory.TYPES.get(random.nextInt(AnimalFactory.TYPES.size())), id, "n", random.nextInt(30));
+    }
+}
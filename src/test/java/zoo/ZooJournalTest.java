@@ -0,0 +1,144 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZooJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordTheZooRejectsIsSkippedAndReported() throws Exception {
+        Path base = dir.resolve("zoo.snap");
+        writeJournal(base, AnimalFactory.createAnimal("Lion", "L1", "Leo", 5));
+        Path segment = onlySegment(base);
+        appendRecord(segment, addRecord(2, "Unicorn", "U1"));
+        appendRecord(segment, addRecord(3, "Penguin", "P1"));
+
+        Zoo zoo = new Zoo();
+        LoadReport report = new LoadReport();
+        assertEquals(3, ZooJournal.replay(base, 0, zoo, null, report));
+        assertNotNull(zoo.getById("L1"));
+        assertNotNull(zoo.getById("P1"));
+        assertEquals(2, zoo.size());
+        assertEquals(1, report.getJournalRecordsSkipped());
+        assertEquals(1, report.getMalformedCount());
+        assertTrue(report.getMalformedLines().get(0).startsWith("journal record 2 in "));
+        assertTrue(report.getMalformedLines().get(0).contains("Unicorn"));
+    }
+
+    @Test
+    void replayStopsAtATruncatedFinalRecord() throws Exception {
+        Path base = dir.resolve("zoo.snap");
+        writeJournal(base, lion("L1"), lion("L2"), lion("L3"));
+        Path segment = onlySegment(base);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        Zoo zoo = new Zoo();
+        assertEquals(2, ZooJournal.replay(base, 0, zoo, null, new LoadReport()));
+        assertEquals(2, zoo.size());
+        assertNull(zoo.getById("L3"));
+
+        // The torn record's sequence number is handed out again, in a new segment
+        ZooJournal journal = new ZooJournal(base, 2, 0);
+        zoo.addListener(journal);
+        zoo.addAnimal(lion("L4"));
+        journal.close();
+        Zoo reopened = new Zoo();
+        assertEquals(3, ZooJournal.replay(base, 0, reopened, null, new LoadReport()));
+        assertNotNull(reopened.getById("L4"));
+        assertNull(reopened.getById("L3"));
+        assertEquals(3, reopened.size());
+    }
+
+    @Test
+    void checksumMismatchEndsItsSegment() throws Exception {
+        Path base = dir.resolve("zoo.snap");
+        writeJournal(base, lion("L1"), lion("L2"), lion("L3"));
+        Path segment = onlySegment(base);
+        byte[] bytes = Files.readAllBytes(segment);
+        int second = 8 + ByteBuffer.wrap(bytes).getInt(0);
+        // Flip a bit in the second record's body; its length still frames it
+        bytes[second + 8 + 10] ^= 1;
+        Files.write(segment, bytes);
+
+        Zoo zoo = new Zoo();
+        LoadReport report = new LoadReport();
+        assertEquals(1, ZooJournal.replay(base, 0, zoo, null, report));
+        assertNotNull(zoo.getById("L1"));
+        assertNull(zoo.getById("L2"));
+        assertNull(zoo.getById("L3"));
+        assertEquals(0, report.getMalformedCount());
+
+        // A later segment is still read
+        ZooJournal journal = new ZooJournal(base, 3, 0);
+        zoo.addListener(journal);
+        zoo.addAnimal(lion("L4"));
+        journal.close();
+        Zoo reopened = new Zoo();
+        assertEquals(4, ZooJournal.replay(base, 0, reopened, null, new LoadReport()));
+        assertNotNull(reopened.getById("L1"));
+        assertNotNull(reopened.getById("L4"));
+        assertEquals(2, reopened.size());
+    }
+
+    private static Animal lion(String id) {
+        return AnimalFactory.createAnimal("Lion", id, "Leo", 5);
+    }
+
+    static void writeJournal(Path base, Animal... animals) throws IOException {
+        Zoo zoo = new Zoo();
+        ZooJournal journal = new ZooJournal(base, 0, 0);
+        zoo.addListener(journal);
+        for (Animal animal : animals) zoo.addAnimal(animal);
+        journal.close();
+    }
+
+    static Path onlySegment(Path base) throws IOException {
+        try (Stream<Path> files = Files.list(base.getParent())) {
+            return files.filter(path -> path.getFileName().toString().startsWith(base.getFileName() + ".journal."))
+                    .reduce((a, b) -> { throw new AssertionError("more than one segment"); })
+                    .orElseThrow();
+        }
+    }
+
+    // An ADD_ANIMAL record, framed the way the journal writes it
+    static byte[] addRecord(long sequence, String type, String id) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(sequence);
+        out.writeByte(1);
+        out.writeUTF(type);
+        out.writeUTF(id);
+        out.writeUTF("n");
+        out.writeInt(1);
+        out.writeByte(Animal.HealthStatus.HEALTHY.ordinal());
+        byte[] record = bytes.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(record);
+        return ByteBuffer.allocate(8 + record.length)
+                .putInt(record.length).putInt((int) crc.getValue()).put(record).array();
+    }
+
+    static void appendRecord(Path segment, byte[] framed) throws IOException {
+        Files.write(segment, framed, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,136 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZooPersistenceTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void stateSurvivesSnapshotAndJournalTail() throws Exception {
+        Path snapshot = dir.resolve("zoo.snap");
+        Zoo zoo = new Zoo();
+        ZooPersistence persistence = new ZooPersistence(snapshot.toString(), Long.MAX_VALUE);
+        persistence.open(zoo, null);
+        zoo.addEnclosure(new Enclosure("SAVANNA_9", "Savanna", 2));
+        zoo.addAnimal(AnimalFactory.createAnimal("Lion", "L1", "Leo", 5), "SAVANNA_9");
+        zoo.updateHealthStatus("L1", Animal.HealthStatus.CRITICAL);
+        String kept = zoo.nextAnimalId();
+        zoo.addAnimal(AnimalFactory.createAnimal("Penguin", kept, "Pip", 2), "AQUATIC_1");
+        String removedBeforeSnapshot = zoo.nextAnimalId();
+        zoo.addAnimal(AnimalFactory.createAnimal("Monkey", removedBeforeSnapshot, "Abu", 3));
+        zoo.removeById(removedBeforeSnapshot);
+        persistence.compactAsync().get();
+
+        // Only the journal has these
+        zoo.updateHealthStatus(kept, Animal.HealthStatus.SICK);
+        zoo.addAnimal(AnimalFactory.createAnimal("Lion", "L2", "Kiara", 2), "SAVANNA_9");
+        zoo.updateHealthStatus("L2", Animal.HealthStatus.RECOVERING);
+        String removedAfterSnapshot = zoo.nextAnimalId();
+        zoo.addAnimal(AnimalFactory.createAnimal("Monkey", removedAfterSnapshot, "Momo", 4));
+        zoo.removeById(removedAfterSnapshot);
+        // A medical entry waits for the journal to reach the disk
+        zoo.addHealthEntry("L1", "checkup", "vet", "rest");
+
+        // As a crash would leave it: the snapshot plus a journal tail
+        Path crashed = dir.resolve("crashed");
+        copyTree(dir, crashed);
+        Zoo recovered = new Zoo();
+        ZooPersistence fromCrash = new ZooPersistence(crashed.resolve("zoo.snap").toString());
+        fromCrash.open(recovered, null);
+        try {
+            assertSameState(zoo, recovered, removedAfterSnapshot);
+        } finally {
+            fromCrash.close();
+        }
+
+        persistence.close();
+        Zoo reopened = new Zoo();
+        ZooPersistence again = new ZooPersistence(snapshot.toString());
+        again.open(reopened, null);
+        try {
+            assertSameState(zoo, reopened, removedAfterSnapshot);
+        } finally {
+            again.close();
+        }
+    }
+
+    private static void assertSameState(Zoo expected, Zoo actual, String highestGeneratedId) {
+        assertEquals(expected.size(), actual.size());
+        for (Animal animal : expected.listSortedByType()) {
+            Animal loaded = actual.getById(animal.getId());
+            assertEquals(animal.getHealthStatus(), loaded.getHealthStatus(), animal.getId());
+            Enclosure enclosure = expected.getEnclosureOf(animal.getId());
+            Enclosure loadedEnclosure = actual.getEnclosureOf(animal.getId());
+            assertEquals(enclosure == null ? null : enclosure.getId(),
+                    loadedEnclosure == null ? null : loadedEnclosure.getId(), animal.getId());
+        }
+        assertEquals(2, actual.getEnclosure("SAVANNA_9").getCapacity());
+        assertEquals(1, actual.getHealthRecord("L1").getEntryCount());
+        // IDs handed out before, even to animals since removed, are not handed out again
+        assertTrue(AnimalIdGenerator.sequenceOf(actual.nextAnimalId())
+                > AnimalIdGenerator.sequenceOf(highestGeneratedId));
+    }
+
+    private static void copyTree(Path from, Path to) throws IOException {
+        try (Stream<Path> files = Files.walk(from)) {
+            for (Path path : (Iterable<Path>) files::iterator) {
+                if (path.startsWith(to)) continue;
+                Path target = to.resolve(from.relativize(path).toString());
+                if (Files.isDirectory(path)) Files.createDirectories(target);
+                else Files.copy(path, target);
+            }
+        }
+    }
+
+    @Test
+    void failedCompactionIsCountedAndRetried() throws Exception {
+        Path snapshot = dir.resolve("zoo.snap");
+        Zoo zoo = new Zoo();
+        ZooPersistence persistence = new ZooPersistence(snapshot.toString(), 2);
+        persistence.open(zoo, null);
+        boolean metricsWereEnabled = ZooMetrics.isEnabled();
+        ZooMetrics.setEnabled(true);
+        try {
+            // A non-empty directory where the snapshot goes cannot be replaced
+            Files.createDirectory(snapshot);
+            Files.createFile(snapshot.resolve("in-the-way"));
+            long failedBefore = ZooMetrics.COMPACTIONS_FAILED.get();
+            zoo.addAnimal(AnimalFactory.createAnimal("Lion", "L1", "Leo", 5));
+            zoo.addAnimal(AnimalFactory.createAnimal("Lion", "L2", "Kiara", 2));
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (ZooMetrics.COMPACTIONS_FAILED.get() == failedBefore && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(failedBefore + 1, ZooMetrics.COMPACTIONS_FAILED.get());
+
+            // Once the way is clear a later batch compacts
+            Files.delete(snapshot.resolve("in-the-way"));
+            Files.delete(snapshot);
+            deadline = System.nanoTime() + 10_000_000_000L;
+            for (int i = 3; !Files.isRegularFile(snapshot) && System.nanoTime() < deadline; i++) {
+                zoo.addAnimal(AnimalFactory.createAnimal("Lion", "L" + i, "Nala", 4));
+                Thread.sleep(10);
+            }
+            assertTrue(Files.isRegularFile(snapshot));
+        } finally {
+            ZooMetrics.setEnabled(metricsWereEnabled);
+            persistence.close();
+        }
+
+        Zoo reopened = new Zoo();
+        ZooPersistence again = new ZooPersistence(snapshot.toString());
+        again.open(reopened, null);
+        again.close();
+        assertEquals(zoo.size(), reopened.size());
+    }
+}
@@ -0,0 +1,95 @@
+package zoo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The running counts Zoo keeps must always equal a recount over every animal,
+// whatever mix of changes got them there
+class ZooStatisticsTest {
+    private static final Animal.HealthStatus[] STATUSES = Animal.HealthStatus.values();
+
+    @Test
+    void countersMatchFullRecountAfterMixedChanges() {
+        Zoo zoo = new Zoo();
+        zoo.enableAnimalTable();
+        zoo.addEnclosure(new Enclosure("SAVANNA_2", "Savanna", 3));
+        zoo.addEnclosure(new Enclosure("AQUATIC_2", "Aquatic", 2));
+        zoo.addEnclosure(new Enclosure("ARCTIC_1", "Arctic", 4));
+        List<String> enclosureIds = List.of("SAVANNA_1", "SAVANNA_2", "AQUATIC_1", "AQUATIC_2", "TROPICAL_1", "ARCTIC_1", "NOWHERE");
+
+        Random random = new Random(42);
+        for (int step = 0; step < 5_000; step++) {
+            String id = "A" + random.nextInt(200);
+            switch (random.nextInt(7)) {
+                case 0 -> zoo.addAnimal(randomAnimal(random, id));
+                case 1 -> zoo.addAnimal(randomAnimal(random, id), enclosureIds.get(random.nextInt(enclosureIds.size())));
+                case 2 -> {
+                    List<Animal> batch = new ArrayList<>();
+                    for (int i = 0; i < 5; i++) batch.add(randomAnimal(random, "A" + random.nextInt(200)));
+                    zoo.addAll(batch);
+                }
+                case 3 -> zoo.removeById(id);
+                case 4 -> zoo.removeAll(List.of(id, "A" + random.nextInt(200)));
+                default -> zoo.updateHealthStatus(id, STATUSES[random.nextInt(STATUSES.length)]);
+            }
+            if (step % 500 == 0) assertMatchesRecount(zoo);
+        }
+        assertMatchesRecount(zoo);
+    }
+
+    @Test
+    void countersMatchRecountWhenEverythingIsRemoved() {
+        Zoo zoo = new Zoo();
+        for (int i = 0; i < 30; i++) zoo.addAnimal(AnimalFactory.createAnimal(AnimalFactory.TYPES.get(i % 5), "B" + i, "b", i));
+        zoo.updateHealthStatus("B3", Animal.HealthStatus.SICK);
+        zoo.updateHealthStatus("B4", Animal.HealthStatus.CRITICAL);
+        for (int i = 0; i < 30; i++) zoo.removeById("B" + i);
+
+        assertMatchesRecount(zoo);
+        assertEquals(0, zoo.getStatistics().getTotalAnimals());
+        assertEquals(Map.of(), zoo.countByType());
+    }
+
+    static void assertMatchesRecount(Zoo zoo) {
+        List<Animal> animals = zoo.listSortedByType();
+        Map<String, Integer> byType = new TreeMap<>();
+        Map<String, Integer> byHabitat = new TreeMap<>();
+        Map<Animal.HealthStatus, Long> byHealth = new EnumMap<>(Animal.HealthStatus.class);
+        for (Animal.HealthStatus status : STATUSES) byHealth.put(status, 0L);
+        long housed = 0;
+        long sick = 0;
+        for (Animal animal : animals) {
+            byType.merge(animal.getType(), 1, Integer::sum);
+            byHabitat.merge(animal.getHabitatType(), 1, Integer::sum);
+            byHealth.merge(animal.getHealthStatus(), 1L, Long::sum);
+            if (zoo.getEnclosureOf(animal.getId()) != null) housed++;
+            if (animal.needsMedicalAttention()) sick++;
+        }
+        long occupancy = 0;
+        long capacity = 0;
+        for (Enclosure enclosure : zoo.getEnclosures()) {
+            occupancy += enclosure.getCurrentOccupancy();
+            capacity += enclosure.getCapacity();
+        }
+
+        ZooStatistics.Snapshot stats = zoo.getStatistics();
+        assertEquals(zoo.size(), animals.size());
+        assertEquals(animals.size(), stats.getTotalAnimals());
+        assertEquals(byType, zoo.countByType());
+        assertEquals(byHabitat, zoo.countByHabitat());
+        assertEquals(byHealth, stats.getCountByHealth());
+        assertEquals(sick, stats.getNeedingMedicalAttention());
+        assertEquals(sick, zoo.getAnimalsNeedingMedicalAttention().size());
+        assertEquals(housed, stats.getHousedAnimals());
+        assertEquals(housed, occupancy);
+        assertEquals(zoo.getEnclosures().size(), stats.getEnclosureCount());
+        assertEquals(capacity, stats.getEnclosureCapacity());
+    }
+
+    private static Animal randomAnimal(Random random, String id) {
+        return AnimalFactory.createAnimal(AnimalFactory.TYPES.get(random.nextInt(AnimalFactory.TYPES.size())), id, "n", random.nextInt(30));
+    }
+}